@@ -0,0 +1,196 @@
+package eu.openminted.content.connector;
+
+import eu.openminted.content.openaire.PublicationSink;
+import eu.openminted.registry.domain.DocumentMetadataRecord;
+import org.apache.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+
+import javax.xml.bind.JAXBException;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches the publications of a list of OpenAIRE identifiers.
+ * <p>
+ * The identifiers are split into chunks, each fetched with an uncached {!terms} filter query
+ * (paged when identifiers have several records) and converted on its own thread.
+ * At most <code>parallelism</code> chunks are in flight at a time, and the converted records
+ * are handed over in the order of the identifiers as soon as their chunk is done.
+ */
+public class BatchLookup {
+    private static Logger log = Logger.getLogger(BatchLookup.class.getName());
+
+    private final OpenAireSolrClient client;
+    private final int chunkSize;
+    private final int parallelism;
+
+    public BatchLookup(OpenAireSolrClient client, int chunkSize, int parallelism) {
+        this.client = client;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Hands the records of the identifiers to the sink, in the order of the identifiers.
+     * An identifier listed twice gets its records twice.
+     *
+     * @return the identifiers without a record, in the order of the identifiers
+     */
+    public List<String> fetch(List<String> ids, final PublicationSink sink) throws IOException {
+        return fetch(ids, true, new Emitter() {
+            @Override
+            public void emit(String id, List<Object> records) throws JAXBException {
+                for (Object record : records) {
+                    sink.accept((String) record);
+                }
+            }
+        });
+    }
+
+    /**
+     * Fetches the records of the identifiers as objects, for callers that read them rather than
+     * marshal them. They are converted without the record cache, which only holds marshalled records.
+     *
+     * @return the records of every identifier that has any, in the order of the identifiers
+     */
+    public Map<String, List<DocumentMetadataRecord>> fetchRecords(List<String> ids) throws IOException {
+        final Map<String, List<DocumentMetadataRecord>> records = new LinkedHashMap<>();
+        fetch(ids, false, new Emitter() {
+            @Override
+            public void emit(String id, List<Object> converted) {
+                if (!records.containsKey(id)) {
+                    List<DocumentMetadataRecord> list = new ArrayList<>(converted.size());
+                    for (Object record : converted) {
+                        list.add((DocumentMetadataRecord) record);
+                    }
+                    records.put(id, list);
+                }
+            }
+        });
+        return records;
+    }
+
+    /*
+        Receives the records of every identifier found, on the calling thread, in the order of the identifiers
+     */
+    private interface Emitter {
+        void emit(String id, List<Object> records) throws JAXBException;
+    }
+
+    private List<String> fetch(List<String> ids, final boolean marshal, Emitter emitter) throws IOException {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            chunks.add(ids.subList(i, Math.min(i + chunkSize, ids.size())));
+        }
+
+        List<String> missing = new ArrayList<>();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, chunks.size())),
+                HarvestPipeline.daemonThreads("batch-lookup"));
+        Deque<Future<Map<String, List<Object>>>> inFlight = new ArrayDeque<>();
+        try {
+            int submitted = 0;
+            for (List<String> chunk : chunks) {
+                while (submitted < chunks.size() && inFlight.size() < parallelism) {
+                    List<String> next = chunks.get(submitted++);
+                    inFlight.add(workers.submit(() -> fetchChunk(next, marshal)));
+                }
+
+                Map<String, List<Object>> records = inFlight.remove().get();
+                for (String id : chunk) {
+                    List<Object> converted = id == null ? null : records.get(id.trim());
+                    if (converted == null || converted.isEmpty()) {
+                        missing.add(id);
+                    } else {
+                        emitter.emit(id.trim(), converted);
+                    }
+                }
+            }
+        } catch (JAXBException e) {
+            throw new IOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+
+        if (!missing.isEmpty()) {
+            log.info(missing.size() + " of " + ids.size() + " identifiers have no record");
+        }
+        return missing;
+    }
+
+    /*
+        Fetches and converts the records of a chunk, by identifier, as xml strings or as objects
+     */
+    private Map<String, List<Object>> fetchChunk(List<String> chunk, boolean marshal) throws Exception {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String id : chunk) {
+            if (id != null && !id.trim().isEmpty()) {
+                ids.add(id.trim());
+            }
+        }
+
+        Map<String, List<Object>> records = new HashMap<>();
+        if (ids.isEmpty()) {
+            return records;
+        }
+
+        RecordListSink recordSink = new RecordListSink();
+        Parser parser = marshal ? new Parser(true) : new Parser(recordSink);
+        if (!marshal) {
+            parser.setRecordCache(null);
+        }
+
+        // an identifier may have several records, so the results can outnumber the identifiers
+        int start = 0;
+        while (true) {
+            SolrDocumentList documents = client.lookup(OpenAireSolrClient.objIdentifierField, ids, start, ids.size())
+                    .getResults();
+            for (SolrDocument document : documents) {
+                Object id = document.getFirstValue(OpenAireSolrClient.objIdentifierField);
+                try {
+                    parser.parse(document);
+                    if (id != null) {
+                        records.computeIfAbsent(id.toString(), key -> new ArrayList<>())
+                                .addAll(marshal ? parser.getOMTDPublications() : recordSink.records);
+                    }
+                } finally {
+                    parser.clear();
+                    recordSink.records.clear();
+                }
+            }
+
+            start += documents.size();
+            if (documents.isEmpty() || start >= documents.getNumFound()) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    /*
+        Collects the records of a document as objects
+     */
+    private static class RecordListSink implements PublicationSink {
+        private final List<Object> records = new ArrayList<>();
+
+        @Override
+        public void accept(DocumentMetadataRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void accept(String record) {
+            // never called, since the record cache is off
+            records.add(record);
+        }
+    }
+}
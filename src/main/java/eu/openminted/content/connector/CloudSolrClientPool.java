@@ -0,0 +1,116 @@
+package eu.openminted.content.connector;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.log4j.Logger;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.impl.HttpClientUtil;
+import org.apache.solr.common.params.ModifiableSolrParams;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one long-lived, thread-safe CloudSolrClient per ZooKeeper ensemble.
+ * Clients are created lazily (or eagerly through acquire) and share their HTTP
+ * connection pool across all searches. Owners such as the connector beans acquire
+ * the client of their ensemble and release it when they are destroyed; the client
+ * is closed once its last owner releases it.
+ * <p>
+ * The HTTP pool can be sized through the system properties
+ * <code>openaire.solr.maxConnections</code> and <code>openaire.solr.maxConnectionsPerHost</code>,
+ * and the socket timeout (which bounds abandoned requests) through <code>openaire.solr.socketTimeout</code>.
+ */
+public class CloudSolrClientPool {
+    private static Logger log = Logger.getLogger(CloudSolrClientPool.class.getName());
+
+    private static final int maxConnections = Integer.getInteger("openaire.solr.maxConnections", 128);
+    private static final int maxConnectionsPerHost = Integer.getInteger("openaire.solr.maxConnectionsPerHost", 32);
+    private static final int socketTimeout = Integer.getInteger("openaire.solr.socketTimeout", 60000);
+
+    private static final Map<String, PooledClient> clients = new ConcurrentHashMap<>();
+
+    private CloudSolrClientPool() {
+    }
+
+    public static CloudSolrClient getClient(String zkHosts) {
+        return clients.computeIfAbsent(zkHosts, CloudSolrClientPool::create).solrClient;
+    }
+
+    /**
+     * Registers an owner of the client of the given ensemble, creating the client and connecting it
+     * to ZooKeeper so that the first search does not pay for the handshake and the cluster state fetch
+     */
+    public static void acquire(String zkHosts) {
+        PooledClient pooledClient = clients.compute(zkHosts, (hosts, existing) -> {
+            PooledClient acquired = existing == null ? create(hosts) : existing;
+            acquired.references++;
+            return acquired;
+        });
+        try {
+            pooledClient.solrClient.connect();
+        } catch (Exception e) {
+            log.error("CloudSolrClientPool.acquire", e);
+        }
+    }
+
+    /**
+     * Unregisters an owner of the client of the given ensemble, closing the client when it was the last one
+     */
+    public static void release(String zkHosts) {
+        clients.computeIfPresent(zkHosts, (hosts, pooledClient) -> {
+            if (--pooledClient.references > 0) {
+                return pooledClient;
+            }
+            pooledClient.close();
+            return null;
+        });
+    }
+
+    /**
+     * Closes every client, whatever its owners
+     */
+    public static void shutdown() {
+        for (String zkHosts : clients.keySet()) {
+            PooledClient pooledClient = clients.remove(zkHosts);
+            if (pooledClient != null) {
+                pooledClient.close();
+            }
+        }
+    }
+
+    private static PooledClient create(String zkHosts) {
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(HttpClientUtil.PROP_MAX_CONNECTIONS, maxConnections);
+        params.set(HttpClientUtil.PROP_MAX_CONNECTIONS_PER_HOST, maxConnectionsPerHost);
+        params.set(HttpClientUtil.PROP_SO_TIMEOUT, socketTimeout);
+        CloseableHttpClient httpClient = HttpClientUtil.createClient(params);
+
+        CloudSolrClient solrClient = new CloudSolrClient.Builder()
+                .withZkHost(zkHosts)
+                .withHttpClient(httpClient)
+                .build();
+        return new PooledClient(solrClient, httpClient);
+    }
+
+    private static class PooledClient {
+        private final CloudSolrClient solrClient;
+        private final CloseableHttpClient httpClient;
+        private int references = 0;
+
+        PooledClient(CloudSolrClient solrClient, CloseableHttpClient httpClient) {
+            this.solrClient = solrClient;
+            this.httpClient = httpClient;
+        }
+
+        void close() {
+            try {
+                solrClient.close();
+            } catch (IOException e) {
+                log.error("CloudSolrClientPool.close", e);
+            }
+            // the http client is not owned by the solr client when passed through the builder
+            HttpClientUtil.close(httpClient);
+        }
+    }
+}
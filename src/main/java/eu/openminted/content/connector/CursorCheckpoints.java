@@ -0,0 +1,132 @@
+package eu.openminted.content.connector;
+
+import org.apache.solr.common.params.CursorMarkParams;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the cursorMarks reached at regular offsets of the result set of a query,
+ * so that deep pages can be served by resuming a cursor from the nearest checkpoint
+ * instead of making every shard collect and sort all the preceding documents.
+ * <p>
+ * Checkpoints are kept per query signature, for the most recently used signatures only.
+ * A cursorMark stays valid when documents are added or removed, but the offset it was recorded at
+ * does not: the checkpoints of a signature are recorded with the numFound of the result set, so that
+ * the caller can drop them once it changes, and they expire after a time to live in any case.
+ */
+public class CursorCheckpoints {
+    /**
+     * The start of every result set
+     */
+    public static final Checkpoint start = new Checkpoint(0, CursorMarkParams.CURSOR_MARK_START, -1);
+
+    private final int interval;
+    private final long ttlNanos;
+    private final Map<String, Marks> checkpoints;
+
+    public CursorCheckpoints(int interval, final int maxSignatures, long ttl, TimeUnit unit) {
+        this.interval = interval;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.checkpoints = new LinkedHashMap<String, Marks>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Marks> eldest) {
+                return size() > maxSignatures;
+            }
+        };
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * @return the checkpoint nearest to (and not after) the offset, or the start of the result set
+     */
+    public synchronized Checkpoint floor(String signature, int offset) {
+        Marks marks = current(signature);
+        if (marks != null) {
+            Map.Entry<Integer, String> entry = marks.cursorMarks.floorEntry(offset);
+            if (entry != null) {
+                return new Checkpoint(entry.getKey(), entry.getValue(), marks.numFound);
+            }
+        }
+        return start;
+    }
+
+    /**
+     * Records the cursorMark of an offset, if the offset is a checkpoint.
+     * The other checkpoints of the signature are dropped when they were recorded with another numFound.
+     */
+    public synchronized void put(String signature, int offset, String cursorMark, long numFound) {
+        if (offset <= 0 || offset % interval != 0) {
+            return;
+        }
+        Marks marks = current(signature);
+        if (marks == null || marks.numFound != numFound) {
+            marks = new Marks(numFound, System.nanoTime());
+            checkpoints.put(signature, marks);
+        }
+        marks.cursorMarks.put(offset, cursorMark);
+    }
+
+    public synchronized void remove(String signature) {
+        checkpoints.remove(signature);
+    }
+
+    public synchronized void clear() {
+        checkpoints.clear();
+    }
+
+    private Marks current(String signature) {
+        Marks marks = checkpoints.get(signature);
+        if (marks != null && System.nanoTime() - marks.created > ttlNanos) {
+            checkpoints.remove(signature);
+            return null;
+        }
+        return marks;
+    }
+
+    /**
+     * A cursorMark and the offset it points to, in a result set of numFound documents
+     */
+    public static class Checkpoint {
+        private final int offset;
+        private final String cursorMark;
+        private final long numFound;
+
+        Checkpoint(int offset, String cursorMark, long numFound) {
+            this.offset = offset;
+            this.cursorMark = cursorMark;
+            this.numFound = numFound;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public String getCursorMark() {
+            return cursorMark;
+        }
+
+        /**
+         * @return true if the offset still holds in a result set of the given size
+         */
+        public boolean isValid(long numFound) {
+            return this == start || this.numFound == numFound;
+        }
+    }
+
+    private static class Marks {
+        private final long numFound;
+        private final long created;
+        private final TreeMap<Integer, String> cursorMarks = new TreeMap<>();
+
+        Marks(long numFound, long created) {
+            this.numFound = numFound;
+            this.created = created;
+        }
+    }
+}
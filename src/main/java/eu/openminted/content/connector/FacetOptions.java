@@ -0,0 +1,51 @@
+package eu.openminted.content.connector;
+
+import org.apache.solr.common.params.FacetParams;
+
+/**
+ * Limit, minimum count and sort order of the values returned for a facet
+ */
+public class FacetOptions {
+    private int limit = 100;
+    private int minCount = 1;
+    private String sort = FacetParams.FACET_SORT_COUNT;
+
+    public FacetOptions() {
+    }
+
+    public FacetOptions(int limit, int minCount, String sort) {
+        this.limit = limit;
+        this.minCount = minCount;
+        this.sort = sort;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @param limit maximum number of values of the facet, -1 for unlimited
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    public int getMinCount() {
+        return minCount;
+    }
+
+    public void setMinCount(int minCount) {
+        this.minCount = minCount;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    /**
+     * @param sort either FacetParams.FACET_SORT_COUNT or FacetParams.FACET_SORT_INDEX
+     */
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+}
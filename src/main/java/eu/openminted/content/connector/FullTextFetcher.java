@@ -0,0 +1,529 @@
+package eu.openminted.content.connector;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams the full texts of documents from their download urls, as a zip archive with one entry
+ * per document, named by its identifier.
+ * <p>
+ * Every document has one or more urls (mirrors of the same file), tried in order until one can be opened;
+ * a document none of whose mirrors can be opened is skipped. Once bytes have been read, the mirrors
+ * are no longer interchangeable: a download that breaks is resumed from the last byte read on the same url
+ * only, with a range request validated by the ETag (or Last-Modified) of the first response through If-Range,
+ * or else by its length. A document that cannot be resumed, or that changed meanwhile, fails the stream
+ * with an IOException rather than splicing two different files, and the archive is left unfinished.
+ * <p>
+ * The documents are downloaded concurrently, up to <code>openaire.fulltext.downloadsAhead</code> of them
+ * ahead of the one being written, and each is spooled to a temporary file so that the entries keep the order
+ * of the documents without holding whole files in memory. A background thread writes the archive into a pipe
+ * as the stream is read, deleting every spool file once it is copied. Connections are pooled, with at most
+ * <code>openaire.fulltext.maxConnections</code> in total and <code>openaire.fulltext.maxConnectionsPerHost</code>
+ * per host: downloads from a busy host wait for one of its connections.
+ */
+public class FullTextFetcher {
+    private static Logger log = Logger.getLogger(FullTextFetcher.class.getName());
+
+    private static final int maxConnections = Integer.getInteger("openaire.fulltext.maxConnections", 64);
+    private static final int maxConnectionsPerHost = Integer.getInteger("openaire.fulltext.maxConnectionsPerHost", 4);
+    private static final int connectTimeout = Integer.getInteger("openaire.fulltext.connectTimeout", 10000);
+    private static final int socketTimeout = Integer.getInteger("openaire.fulltext.socketTimeout", 60000);
+    private static final int defaultDownloadsAhead = Integer.getInteger("openaire.fulltext.downloadsAhead", 8);
+    private static final int pipeSize = 64 * 1024;
+
+    /*
+        Writes the archives and downloads the documents ahead
+     */
+    private static final ExecutorService downloaders =
+            Executors.newCachedThreadPool(HarvestPipeline.daemonThreads("fulltext-download"));
+
+    private final CloseableHttpClient httpClient;
+    private final int maxAttempts;
+    private final int downloadsAhead;
+
+    public FullTextFetcher() {
+        this(createClient(), 3);
+    }
+
+    /**
+     * @param maxAttempts attempts on every url before falling back to the next mirror,
+     *                    or before failing once the download has started
+     */
+    public FullTextFetcher(CloseableHttpClient httpClient, int maxAttempts) {
+        this(httpClient, maxAttempts, defaultDownloadsAhead);
+    }
+
+    /**
+     * @param downloadsAhead documents downloaded at the same time, including the one being written
+     */
+    public FullTextFetcher(CloseableHttpClient httpClient, int maxAttempts, int downloadsAhead) {
+        this.httpClient = httpClient;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.downloadsAhead = Math.max(1, downloadsAhead);
+    }
+
+    /**
+     * Opens the zip archive of the full texts of the documents, in the order of the map.
+     * Nothing is downloaded until the stream is read.
+     *
+     * @param documents the urls of every document, in order of preference, by identifier
+     */
+    public InputStream open(Map<String, List<String>> documents) throws IOException {
+        List<String> ids = new ArrayList<>(documents.size());
+        List<DocumentStream> streams = new ArrayList<>(documents.size());
+        for (Map.Entry<String, List<String>> document : documents.entrySet()) {
+            ids.add(document.getKey());
+            streams.add(new DocumentStream(document.getValue()));
+        }
+
+        FullTextArchive archive = new FullTextArchive(ids, streams);
+        try {
+            downloaders.execute(archive::write);
+        } catch (RejectedExecutionException e) {
+            throw new IOException(e);
+        }
+        return archive;
+    }
+
+    private static CloseableHttpClient createClient() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerHost);
+
+        // a download waits for a connection to its host as long as the downloads ahead of it need them,
+        // which their socket timeout bounds; giving up earlier would skip documents that can be downloaded
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(0)
+                .setSocketTimeout(socketTimeout)
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    /*
+        The reading end of the pipe the archive is written into
+     */
+    private class FullTextArchive extends InputStream {
+        private final List<String> ids;
+        private final List<DocumentStream> streams;
+        private final PipedInputStream pipe;
+        private final PipedOutputStream output;
+
+        /*
+            Spool files of the downloaded documents not yet copied into the archive
+         */
+        private final Set<Path> spools = new HashSet<>();
+        private volatile boolean aborted = false;
+
+        private volatile IOException failure;
+        private volatile boolean closed = false;
+
+        FullTextArchive(List<String> ids, List<DocumentStream> streams) throws IOException {
+            this.ids = ids;
+            this.streams = streams;
+            this.pipe = new PipedInputStream(pipeSize);
+            this.output = new PipedOutputStream(pipe);
+        }
+
+        /*
+            Copies the documents into the archive in order, on a background thread, while the next ones download.
+            On failure the archive is not finished, so that the reader cannot mistake a truncated document
+            for a complete one.
+         */
+        void write() {
+            Deque<Future<Path>> downloads = new ArrayDeque<>();
+            boolean written = false;
+            try {
+                ZipOutputStream zip = new ZipOutputStream(output);
+                // full texts are mostly pdfs, which are compressed already
+                zip.setLevel(Deflater.NO_COMPRESSION);
+                int submitted = 0;
+                for (int i = 0; i < streams.size() && !closed; i++) {
+                    while (submitted < streams.size() && submitted - i < downloadsAhead) {
+                        DocumentStream stream = streams.get(submitted++);
+                        downloads.add(downloaders.submit(() -> download(stream)));
+                    }
+
+                    Path spool = downloads.remove().get();
+                    if (spool != null) {
+                        zip.putNextEntry(new ZipEntry(ids.get(i)));
+                        Files.copy(spool, zip);
+                        zip.closeEntry();
+                        release(spool);
+                    }
+                }
+                zip.close();
+                written = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed(new IOException(e));
+            } catch (ExecutionException e) {
+                failed(e.getCause());
+            } catch (IOException | RuntimeException e) {
+                failed(e);
+            } finally {
+                if (!written) {
+                    abort(downloads);
+                }
+            }
+        }
+
+        /*
+            Downloads a document into a spool file, null if it has no bytes or none of its mirrors can be opened
+         */
+        private Path download(DocumentStream stream) throws IOException {
+            Path spool = null;
+            boolean complete = false;
+            try {
+                byte[] buffer = new byte[8192];
+                int read = stream.read(buffer, 0, buffer.length);
+                if (read < 0) {
+                    return null;
+                }
+
+                spool = spool();
+                try (OutputStream outputStream = Files.newOutputStream(spool)) {
+                    while (read >= 0) {
+                        if (closed || aborted) {
+                            throw new IOException("The full text archive is closed");
+                        }
+                        outputStream.write(buffer, 0, read);
+                        read = stream.read(buffer, 0, buffer.length);
+                    }
+                }
+                complete = true;
+                return spool;
+            } finally {
+                stream.close();
+                if (spool != null && !complete) {
+                    release(spool);
+                }
+            }
+        }
+
+        private synchronized Path spool() throws IOException {
+            if (aborted) {
+                throw new IOException("The full text archive is closed");
+            }
+            Path spool = Files.createTempFile("fulltext", ".tmp");
+            spools.add(spool);
+            return spool;
+        }
+
+        private synchronized void release(Path spool) {
+            spools.remove(spool);
+            delete(spool);
+        }
+
+        /*
+            Stops the downloads and deletes their spool files, including those of downloads still running
+         */
+        private void abort(Collection<Future<Path>> downloads) {
+            synchronized (this) {
+                aborted = true;
+                for (Path spool : spools) {
+                    delete(spool);
+                }
+                spools.clear();
+            }
+            // the running downloads notice the abort at their next buffer, and close their own stream
+            for (Future<Path> download : downloads) {
+                download.cancel(true);
+            }
+        }
+
+        private void failed(Throwable e) {
+            if (!closed) {
+                log.debug("Cannot write the full text archive: " + e.getMessage());
+                failure = e instanceof IOException ? (IOException) e : new IOException(e);
+            }
+            // the reader would otherwise wait for the rest of the archive forever
+            try {
+                output.close();
+            } catch (IOException closeFailure) {
+                log.debug("Cannot close the pipe: " + closeFailure.getMessage());
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int read = read(one, 0, 1);
+            return read < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read;
+            try {
+                read = pipe.read(buffer, offset, length);
+            } catch (IOException e) {
+                throw failure == null ? e : new IOException(failure.getMessage(), failure);
+            }
+            if (read < 0 && failure != null) {
+                throw new IOException(failure.getMessage(), failure);
+            }
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return pipe.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the writer stops at its next write into the closed pipe
+            closed = true;
+            pipe.close();
+        }
+    }
+
+    /*
+        The full text of one document, resumed from the last byte read after a failure
+     */
+    private class DocumentStream extends InputStream {
+        private final List<String> urls;
+        private int mirror = 0;
+        private int attempts = 0;
+        private long position = 0;
+
+        /*
+            Identify the version of the document being read, so that a resume cannot splice two versions
+         */
+        private String validator;
+        private long length = -1;
+
+        private CloseableHttpResponse response;
+        private InputStream content;
+        private boolean finished = false;
+
+        DocumentStream(List<String> urls) {
+            this.urls = urls;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int read = read(one, 0, 1);
+            return read < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            while (true) {
+                connect();
+                if (content == null) {
+                    return -1;
+                }
+
+                try {
+                    int read = content.read(buffer, offset, length);
+                    if (read < 0) {
+                        finished = true;
+                        release();
+                        return -1;
+                    }
+                    position += read;
+                    return read;
+                } catch (IOException e) {
+                    log.debug("Download of " + urls.get(mirror) + " broke at byte " + position + ": " + e.getMessage());
+                    release();
+                    failed();
+                }
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            finished = true;
+            release();
+        }
+
+        /*
+            Opens the first mirror that works, or resumes the current one at the current position
+         */
+        private void connect() throws IOException {
+            while (content == null && !finished) {
+                if (position > 0 && (attempts >= maxAttempts || (validator == null && length < 0))) {
+                    finished = true;
+                    throw new IOException("Download of " + urls.get(mirror) + " failed at byte " + position);
+                }
+                if (mirror >= urls.size()) {
+                    finished = true;
+                    log.warn("Skipping the full text of " + urls + ", which cannot be downloaded");
+                    return;
+                }
+
+                String url = urls.get(mirror);
+                boolean changed = false;
+                try {
+                    HttpGet request = new HttpGet(url);
+                    if (position > 0) {
+                        request.setHeader(HttpHeaders.RANGE, "bytes=" + position + "-");
+                        if (validator != null) {
+                            request.setHeader(HttpHeaders.IF_RANGE, validator);
+                        }
+                    }
+                    response = httpClient.execute(request);
+                    int status = response.getStatusLine().getStatusCode();
+
+                    if (position == 0 && status == HttpStatus.SC_OK && response.getEntity() != null) {
+                        validator = validator(response);
+                        length = response.getEntity().getContentLength();
+                        attempts = 0;
+                        content = response.getEntity().getContent();
+                    } else if (position > 0 && status == HttpStatus.SC_PARTIAL_CONTENT && rangeStart(response) == position
+                            && (validator != null || rangeLength(response) == length)) {
+                        content = response.getEntity().getContent();
+                    } else if (position > 0 && status == HttpStatus.SC_OK && validator == null
+                            && response.getEntity() != null && response.getEntity().getContentLength() == length) {
+                        // the url ignores ranges and still serves a document of the same length
+                        content = response.getEntity().getContent();
+                        skipTo(content, position);
+                    } else if (position > 0 && (status == HttpStatus.SC_OK || status == HttpStatus.SC_PARTIAL_CONTENT
+                            || status == HttpStatus.SC_REQUESTED_RANGE_NOT_SATISFIABLE)) {
+                        // If-Range failed or the length differs
+                        changed = true;
+                        release();
+                    } else {
+                        log.debug("Cannot download " + url + ": " + response.getStatusLine());
+                        release();
+                        if (position > 0) {
+                            attempts++;
+                        } else {
+                            mirror++;
+                            attempts = 0;
+                        }
+                    }
+                } catch (IOException | IllegalArgumentException e) {
+                    log.debug("Cannot download " + url + ": " + e.getMessage());
+                    release();
+                    failed();
+                }
+
+                if (changed) {
+                    finished = true;
+                    throw new IOException("The full text at " + url + " changed after " + position + " bytes were read");
+                }
+            }
+        }
+
+        /*
+            Once the download has started, every attempt is on the same url
+         */
+        private void failed() {
+            if (++attempts >= maxAttempts && position == 0) {
+                mirror++;
+                attempts = 0;
+            }
+        }
+
+        private void release() {
+            content = null;
+            if (response != null) {
+                try {
+                    response.close();
+                } catch (IOException e) {
+                    log.debug("Cannot close the response: " + e.getMessage());
+                }
+                response = null;
+            }
+        }
+    }
+
+    /*
+        Strong validator of a response for If-Range: its ETag, or else its Last-Modified date, null if it has neither
+     */
+    private static String validator(CloseableHttpResponse response) {
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        if (etag != null && !etag.getValue().trim().startsWith("W/")) {
+            return etag.getValue().trim();
+        }
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        return lastModified == null ? null : lastModified.getValue().trim();
+    }
+
+    /*
+        Complete length of a partial content response (Content-Range: bytes start-end/length), -1 if unknown
+     */
+    private static long rangeLength(CloseableHttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (header == null) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        try {
+            return Long.parseLong(value.substring(value.indexOf('/') + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /*
+        Start of the range of a partial content response (Content-Range: bytes start-end/length), -1 if missing
+     */
+    private static long rangeStart(CloseableHttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.CONTENT_RANGE);
+        if (header == null) {
+            return -1;
+        }
+        String value = header.getValue().trim();
+        int start = value.indexOf(' ') + 1;
+        int end = value.indexOf('-', start);
+        try {
+            return end < 0 ? -1 : Long.parseLong(value.substring(start, end).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Cannot delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void skipTo(InputStream inputStream, long bytes) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (bytes > 0) {
+            int read = inputStream.read(buffer, 0, (int) Math.min(buffer.length, bytes));
+            if (read < 0) {
+                throw new IOException("Stream ended before the resume position");
+            }
+            bytes -= read;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package eu.openminted.content.connector;
+
+import org.apache.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Staged harvesting of the OMTD xml of all the publications matching a query.
+ * <p>
+ * A reader thread prefetches the pages of the query with cursorMark and hands every document
+ * to a pool of conversion workers (each with its own Parser). The futures of the conversions are
+ * queued in solr order into a bounded queue, which the consumer drains through take().
+ * The queue depth bounds the number of documents fetched but not yet consumed, so
+ * fetching, converting and consuming overlap while memory stays constant.
+ * <p>
+ * For bulk exports the result set can be split into disjoint hash partitions of the record
+ * identifier, each read by its own cursor in parallel. The partitions are then merged into the
+ * queue as their pages arrive, so the solr order is only kept within each partition.
+ */
+public class HarvestPipeline implements Closeable {
+    private static Logger log = Logger.getLogger(HarvestPipeline.class.getName());
+
+    private static final Future<List<String>> endOfResults = CompletableFuture.completedFuture(null);
+
+    private final OpenAireSolrClient client;
+    private final BlockingQueue<Future<List<String>>> converted;
+    private final ExecutorService workers;
+    private final ThreadLocal<Parser> parsers;
+    private final HarvestStatistics statistics = new HarvestStatistics();
+    private final List<Thread> readers = new ArrayList<>();
+
+    private int runningReaders;
+    private boolean finished = false;
+    private boolean closed = false;
+    private IOException failure;
+
+    public HarvestPipeline(OpenAireSolrClient client, Query query, int pageSize, int queueDepth, int workerCount) {
+        this(client, query, pageSize, queueDepth, workerCount, 1);
+    }
+
+    /**
+     * @param partitions number of disjoint partitions of the result set read concurrently
+     */
+    public HarvestPipeline(OpenAireSolrClient client, Query query, int pageSize, int queueDepth, int workerCount,
+                           int partitions) {
+        this.client = client;
+        this.converted = new ArrayBlockingQueue<>(queueDepth);
+        this.workers = Executors.newFixedThreadPool(workerCount, daemonThreads("harvest-worker"));
+        this.parsers = ThreadLocal.withInitial(() -> {
+            try {
+                return new Parser(true);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        SolrQuery solrQuery = client.cursorQuery(query, pageSize);
+        for (int partition = 0; partition < partitions; partition++) {
+            SolrQuery partitionQuery = partitions == 1
+                    ? solrQuery
+                    : client.partitionQuery(solrQuery, partitions, partition);
+            readers.add(daemonThreads("harvest-reader-" + partition).newThread(() -> read(partitionQuery)));
+        }
+        this.runningReaders = partitions;
+    }
+
+    public HarvestPipeline start() {
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        return this;
+    }
+
+    /**
+     * Blocks until the publications of the next document are converted
+     *
+     * @return the publications of the next document in solr order, or null when the results are exhausted
+     * @throws IOException if a reader or a conversion failed, on this call and on every later one
+     */
+    public List<String> take() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (finished) {
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            List<String> publications = converted.take().get();
+            // every reader marks the end of its partition
+            while (publications == null && --runningReaders > 0) {
+                publications = converted.take().get();
+            }
+
+            if (publications == null) {
+                // all the readers are done, so the workers are no longer needed
+                close();
+            } else {
+                statistics.recordsEmitted(publications.size(), System.nanoTime() - start);
+            }
+            return publications;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = new IOException(e);
+            close();
+            throw failure;
+        } catch (ExecutionException e) {
+            // a reader or a conversion failed, the rest of the results cannot be trusted
+            failure = new IOException(e.getCause());
+            close();
+            throw failure;
+        }
+    }
+
+    public HarvestStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Stops the readers and the workers. Called by take() once the results are exhausted or
+     * a reader fails, so only a consumer that stops early has to close the pipeline itself.
+     */
+    @Override
+    public synchronized void close() {
+        finished = true;
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Thread reader : readers) {
+            reader.interrupt();
+        }
+        workers.shutdownNow();
+        log.debug(statistics);
+    }
+
+    private void read(SolrQuery solrQuery) {
+        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+        boolean done = false;
+
+        try {
+            while (!done) {
+                long start = System.nanoTime();
+                DocumentFeeder feeder = new DocumentFeeder();
+                QueryResponse response = client.streamPage(solrQuery, cursorMark, feeder);
+                if (feeder.interrupted) {
+                    throw new InterruptedException();
+                }
+                String nextCursorMark = response.getNextCursorMark();
+                statistics.pageFetched(feeder.documents, System.nanoTime() - start - feeder.blockedNanos);
+
+                if (cursorMark.equals(nextCursorMark)) {
+                    done = true;
+                }
+                cursorMark = nextCursorMark;
+            }
+            converted.put(endOfResults);
+        } catch (InterruptedException e) {
+            // closed by the consumer
+        } catch (Exception e) {
+            log.error("HarvestPipeline.read", e);
+            CompletableFuture<List<String>> failure = new CompletableFuture<>();
+            failure.completeExceptionally(e);
+            try {
+                converted.put(failure);
+            } catch (InterruptedException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Queues the conversion of every document as soon as it is decoded from the response
+     */
+    private class DocumentFeeder extends StreamingResponseCallback {
+        private int documents = 0;
+        private long blockedNanos = 0;
+        private boolean interrupted = false;
+
+        @Override
+        public void streamSolrDocument(SolrDocument document) {
+            if (interrupted) {
+                return;
+            }
+
+            documents++;
+            long start = System.nanoTime();
+            try {
+                converted.put(workers.submit(() -> convert(document)));
+            } catch (InterruptedException e) {
+                // closed by the consumer, the rest of the response is drained and ignored
+                interrupted = true;
+            } catch (RejectedExecutionException e) {
+                interrupted = true;
+            }
+            blockedNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void streamDocListInfo(long numFound, long start, Float maxScore) {
+        }
+    }
+
+    private List<String> convert(SolrDocument document) throws Exception {
+        long start = System.nanoTime();
+        Parser parser = parsers.get();
+        try {
+            parser.parse(document);
+            List<String> publications = parser.getOMTDPublications().isEmpty()
+                    ? Collections.emptyList()
+                    : new ArrayList<>(parser.getOMTDPublications());
+            statistics.documentConverted(System.nanoTime() - start);
+            return publications;
+        } finally {
+            parser.clear();
+        }
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
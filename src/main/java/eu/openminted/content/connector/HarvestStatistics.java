@@ -0,0 +1,85 @@
+package eu.openminted.content.connector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per stage counters of a HarvestPipeline.
+ * Times are the cumulative busy time of each stage, so comparing the throughput
+ * of the stages shows which one is the bottleneck.
+ */
+public class HarvestStatistics {
+    private final AtomicLong pagesFetched = new AtomicLong();
+    private final AtomicLong documentsFetched = new AtomicLong();
+    private final AtomicLong fetchNanos = new AtomicLong();
+    private final AtomicLong documentsConverted = new AtomicLong();
+    private final AtomicLong convertNanos = new AtomicLong();
+    private final AtomicLong recordsEmitted = new AtomicLong();
+    private final AtomicLong emitWaitNanos = new AtomicLong();
+
+    void pageFetched(int documents, long nanos) {
+        pagesFetched.incrementAndGet();
+        documentsFetched.addAndGet(documents);
+        fetchNanos.addAndGet(nanos);
+    }
+
+    void documentConverted(long nanos) {
+        documentsConverted.incrementAndGet();
+        convertNanos.addAndGet(nanos);
+    }
+
+    void recordsEmitted(int records, long waitNanos) {
+        recordsEmitted.addAndGet(records);
+        emitWaitNanos.addAndGet(waitNanos);
+    }
+
+    public long getPagesFetched() {
+        return pagesFetched.get();
+    }
+
+    public long getDocumentsFetched() {
+        return documentsFetched.get();
+    }
+
+    public long getDocumentsConverted() {
+        return documentsConverted.get();
+    }
+
+    public long getRecordsEmitted() {
+        return recordsEmitted.get();
+    }
+
+    /**
+     * @return documents per second of the cursor reader
+     */
+    public double getFetchThroughput() {
+        return throughput(documentsFetched.get(), fetchNanos.get());
+    }
+
+    /**
+     * @return documents per second of a single conversion worker
+     */
+    public double getConvertThroughput() {
+        return throughput(documentsConverted.get(), convertNanos.get());
+    }
+
+    /**
+     * @return time the output stage spent waiting for the previous stages, in milliseconds
+     */
+    public long getEmitWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(emitWaitNanos.get());
+    }
+
+    private static double throughput(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("fetched %d documents in %d pages (%.1f docs/s), " +
+                        "converted %d documents (%.1f docs/s per worker), emitted %d records (waited %d ms)",
+                getDocumentsFetched(), getPagesFetched(), getFetchThroughput(),
+                getDocumentsConverted(), getConvertThroughput(),
+                getRecordsEmitted(), getEmitWaitMillis());
+    }
+}
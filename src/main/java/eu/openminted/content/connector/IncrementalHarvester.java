@@ -0,0 +1,147 @@
+package eu.openminted.content.connector;
+
+import eu.openminted.content.openaire.DateConverter;
+import eu.openminted.content.openaire.XmlStreamPublicationSink;
+import org.apache.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Harvests only the records transformed since the previous run of the same query.
+ * <p>
+ * Records are selected on the index field of their dri:dateOfTransformation, and the high-water mark
+ * (the latest dri:dateOfTransformation parsed from the headers) of every query keyword and filters is kept
+ * in a local properties file. It is only advanced once a harvest completes, so an interrupted
+ * harvest is repeated in full on the next run. The mark itself is inclusive: records transformed
+ * in the same instant as the mark are delivered again, which keeps the sync idempotent.
+ */
+public class IncrementalHarvester {
+    private static Logger log = Logger.getLogger(IncrementalHarvester.class.getName());
+
+    private final OpenAireSolrClient client;
+    private final Path watermarkFile;
+    private final int pageSize;
+
+    public IncrementalHarvester(OpenAireSolrClient client, Path watermarkFile, int pageSize) {
+        this.client = client;
+        this.watermarkFile = watermarkFile;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Writes the new or changed records matching the query to the output stream,
+     * as a single document wrapped in an <code>OMTDPublications</code> element
+     *
+     * @return the number of records harvested
+     */
+    public long harvest(Query query, OutputStream outputStream) throws IOException {
+        String key = key(query);
+        Properties watermarks = load();
+        String since = watermarks.getProperty(key);
+        Instant latest = since == null ? null : Instant.parse(since);
+        long harvested = 0;
+
+        SolrQuery solrQuery = client.incrementalQuery(query, pageSize, since);
+        try (XmlStreamPublicationSink sink = new XmlStreamPublicationSink(outputStream)) {
+            Parser parser = new Parser(sink);
+            String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            boolean done = false;
+
+            while (!done) {
+                QueryResponse response = client.fetchPage(solrQuery, cursorMark);
+                String nextCursorMark = response.getNextCursorMark();
+
+                for (SolrDocument document : response.getResults()) {
+                    parser.parse(document);
+                    harvested++;
+
+                    // the mark is taken from the header of the record itself, which the filter field is indexed from
+                    Instant instant = instant(parser.getDateOfTransformation());
+                    if (instant != null && (latest == null || instant.isAfter(latest))) {
+                        latest = instant;
+                    }
+                }
+                sink.flush();
+
+                if (cursorMark.equals(nextCursorMark)) {
+                    done = true;
+                }
+                cursorMark = nextCursorMark;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+
+        if (latest != null) {
+            watermarks.setProperty(key, latest.toString());
+            store(watermarks);
+        }
+        log.info("Harvested " + harvested + " records of " + key + " transformed since " + since);
+        return harvested;
+    }
+
+    /**
+     * @return the high-water mark of the query, or null if it was never harvested
+     */
+    public String getWatermark(Query query) throws IOException {
+        return load().getProperty(key(query));
+    }
+
+    /*
+        The instant of a header date. Header dates have no time zone and are indexed as UTC,
+        so the zone DateConverter assumes for the OMTD record is ignored.
+     */
+    private static Instant instant(String date) {
+        XMLGregorianCalendar calendar = date == null ? null : DateConverter.toXMLGregorianCalendar(date);
+        if (calendar == null) {
+            return null;
+        }
+        return LocalDateTime.of(calendar.getYear(), calendar.getMonth(), calendar.getDay(),
+                calendar.getHour(), calendar.getMinute(), calendar.getSecond()).toInstant(ZoneOffset.UTC);
+    }
+
+    private static String key(Query query) {
+        String key = query.getKeyword() == null ? "*:*" : query.getKeyword();
+        List<String> filterQueries = QueryFilters.filterQueries(query);
+        if (!filterQueries.isEmpty()) {
+            // queries differing only in their params cover different records
+            key += " " + filterQueries;
+        }
+        return key;
+    }
+
+    private Properties load() throws IOException {
+        Properties watermarks = new Properties();
+        if (Files.exists(watermarkFile)) {
+            try (InputStream inputStream = Files.newInputStream(watermarkFile)) {
+                watermarks.load(inputStream);
+            }
+        }
+        return watermarks;
+    }
+
+    private void store(Properties watermarks) throws IOException {
+        Path directory = watermarkFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "watermarks", ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+            watermarks.store(outputStream, "OpenAIRE incremental harvest high-water marks");
+        }
+        Files.move(temporary, watermarkFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,117 @@
+package eu.openminted.content.connector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * InputStream over the OMTD xml of all the publications matching a query.
+ * Pages are fetched lazily with cursorMark and converted by a HarvestPipeline,
+ * whose queue depth bounds the number of documents held in memory.
+ * <p>
+ * The publications are wrapped in an <code>OMTDPublications</code> element, which is only closed
+ * once all the results are read: after a failure every read throws, so that a failed harvest
+ * cannot pass for a complete document.
+ * Closing the stream closes the pipeline, stopping its reader and worker threads.
+ */
+public class MetadataInputStream extends InputStream {
+    private static final byte[] header = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<OMTDPublications>\n")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] footer = "</OMTDPublications>\n".getBytes(StandardCharsets.UTF_8);
+
+    private final HarvestPipeline pipeline;
+
+    private boolean started = false;
+    private boolean finished = false;
+    private IOException failure;
+
+    private byte[] buffer = new byte[0];
+    private int position = 0;
+
+    public MetadataInputStream(HarvestPipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public int read() throws IOException {
+        while (position >= buffer.length) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position >= buffer.length) {
+            if (!fill()) {
+                return -1;
+            }
+        }
+        int count = Math.min(len, buffer.length - position);
+        System.arraycopy(buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() {
+        return buffer.length - position;
+    }
+
+    @Override
+    public void close() {
+        pipeline.close();
+    }
+
+    public HarvestStatistics getStatistics() {
+        return pipeline.getStatistics();
+    }
+
+    /**
+     * Replaces the buffer with the next chunk of the document
+     *
+     * @return false when the whole document has been read
+     */
+    private boolean fill() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (finished) {
+            return false;
+        }
+
+        if (!started) {
+            started = true;
+            buffer = header;
+            position = 0;
+            return true;
+        }
+
+        List<String> publications;
+        try {
+            publications = pipeline.take();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+
+        if (publications == null) {
+            finished = true;
+            buffer = footer;
+        } else {
+            StringBuilder document = new StringBuilder();
+            for (String publication : publications) {
+                document.append(publication).append('\n');
+            }
+            buffer = document.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        position = 0;
+        return true;
+    }
+}
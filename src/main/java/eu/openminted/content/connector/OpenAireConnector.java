@@ -1,80 +1,644 @@
 package eu.openminted.content.connector;
 
+import eu.openminted.content.openaire.OMTDMarshallers;
+import eu.openminted.content.openaire.PublicationSink;
+import eu.openminted.content.openaire.XmlStreamPublicationSink;
+import eu.openminted.registry.domain.DocumentDistributionInfo;
 import eu.openminted.registry.domain.DocumentMetadataRecord;
 import eu.openminted.registry.domain.Facet;
 import eu.openminted.registry.domain.Value;
 import org.apache.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
 import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.hsqldb.lib.StringInputStream;
 import org.springframework.stereotype.Component;
-import org.xml.sax.InputSource;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import java.io.*;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class OpenAireConnector implements ContentConnector {
     private static Logger log = Logger.getLogger(OpenAireConnector.class.getName());
 
+    private static final int fetchMetadataPageSize = Integer.getInteger("openaire.harvest.pageSize", 100);
+    private static final int harvestQueueDepth = Integer.getInteger("openaire.harvest.queueDepth", 200);
+    private static final int harvestWorkers = Integer.getInteger("openaire.harvest.workers",
+            Runtime.getRuntime().availableProcessors());
+    private static final int batchChunkSize = Integer.getInteger("openaire.batch.chunkSize", 500);
+    private static final int batchParallelism = Integer.getInteger("openaire.batch.parallelism", 4);
+
+    /*
+        Workers of the parallel conversion mode of search, shared by all the connector instances.
+        Every worker keeps its own, thread-confined Parser (and therefore handler and marshaller).
+     */
+    private static final ExecutorService conversionWorkers = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), HarvestPipeline.daemonThreads("conversion-worker"));
+    private static final ThreadLocal<Parser> conversionParsers = ThreadLocal.withInitial(() -> {
+        try {
+            return new Parser();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private boolean parallelConversion = Boolean.getBoolean("openaire.search.parallelConversion");
+
+    /*
+        Runs the asynchronous searches, on virtual threads when the JVM provides them
+     */
+    private static final Executor defaultAsyncExecutor = createAsyncExecutor();
+    private Executor asyncExecutor = defaultAsyncExecutor;
+
+    /*
+        Cache of converted results, disabled when openaire.cache.maxBytes is 0
+     */
+    private static final long searchResultCacheBytes = Long.getLong("openaire.cache.maxBytes", 64L * 1024 * 1024);
+    private static final long searchResultCacheTtl = Long.getLong("openaire.cache.ttlSeconds", 300);
+    private SearchResultCache searchResultCache = searchResultCacheBytes > 0
+            ? new SearchResultCache(searchResultCacheBytes, searchResultCacheTtl, TimeUnit.SECONDS)
+            : null;
+
+    private FacetOptions facetOptions = new FacetOptions();
+    private Map<String, FacetOptions> fieldFacetOptions = new HashMap<>();
+
+    private String zkHosts = OpenAireSolrClient.defaultHosts;
+    private boolean clientAcquired = false;
+
+    @PostConstruct
+    public void init() {
+        synchronized (this) {
+            if (!clientAcquired) {
+                CloudSolrClientPool.acquire(zkHosts);
+                clientAcquired = true;
+            }
+        }
+        try {
+            OMTDMarshallers.warmUp();
+        } catch (JAXBException e) {
+            log.error("OpenAireConnector.init", e);
+        }
+    }
+
+    /*
+        Releases the shared client acquired by init; the clients of the other connectors stay open
+     */
+    @PreDestroy
+    public synchronized void destroy() {
+        if (clientAcquired) {
+            CloudSolrClientPool.release(zkHosts);
+            clientAcquired = false;
+        }
+    }
+
+    public String getZkHosts() {
+        return zkHosts;
+    }
+
+    /**
+     * @param zkHosts ZooKeeper ensemble of the OpenAIRE index, as comma separated host:port
+     *                (the openaire.solr.zkHosts system property by default); set it before init
+     */
+    public synchronized void setZkHosts(String zkHosts) {
+        if (clientAcquired) {
+            throw new IllegalStateException("The ZooKeeper ensemble cannot change after init");
+        }
+        this.zkHosts = zkHosts;
+        clearSearchResultCache();
+    }
+
     @Override
     public SearchResult search(Query query) {
-        SearchResult searchResult = new SearchResult();
+        try {
+            return cachedSearch(query);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Search interrupted: " + query.getKeyword());
+        } catch (Exception e) {
+            log.error("OpenAireConnector.search", e);
+        }
+        return new SearchResult();
+    }
+
+    private SearchResult cachedSearch(Query query) throws Exception {
+        if (searchResultCache != null) {
+            SearchResult cached = searchResultCache.get(query);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
+        SearchResult searchResult = execute(query, null);
+        if (searchResultCache != null) {
+            searchResultCache.put(query, searchResult);
+        }
+        return searchResult;
+    }
+
+    /**
+     * Searches like search(Query), but hands the records of the page to the given sink
+     * (for instance an XmlStreamPublicationSink) instead of collecting them as strings.
+     * The publications of the returned SearchResult are then left empty.
+     */
+    public SearchResult search(Query query, PublicationSink sink) {
         try {
-            Parser parser = new Parser();
-            OpenAireSolrClient client = new OpenAireSolrClient();
-            QueryResponse response = client.execute(query);
-            searchResult.setFrom((int) response.getResults().getStart());
-            searchResult.setTo((int) response.getResults().getStart() + response.getResults().size());
-            searchResult.setTotalHits((int) response.getResults().getNumFound());
-
-            List<Facet> facets = new ArrayList<>();
-            if (response.getFacetFields() != null) {
-                for (FacetField facetField : response.getFacetFields()) {
-                    Facet facet = new Facet();
-                    facet.setLabel(facetField.getName());
-                    facet.setField(facetField.getName());
-                    List<Value> values = new ArrayList<>();
-                    for (FacetField.Count count : facetField.getValues()) {
-                        Value value = new Value();
-                        value.setValue(count.getName());
-                        value.setCount((int) count.getCount());
-                        values.add(value);
-                    }
-                    facet.setValues(values);
-                    facets.add(facet);
+            return execute(query, sink);
+        } catch (Exception e) {
+            log.error("OpenAireConnector.search", e);
+        }
+        return new SearchResult();
+    }
+
+    private SearchResult execute(Query query, PublicationSink sink) throws Exception {
+        SearchResult searchResult = new SearchResult();
+
+        OpenAireSolrClient client = newClient();
+        client.setFacetOptions(facetOptions);
+        client.setFieldFacetOptions(fieldFacetOptions);
+        QueryResponse response = client.execute(query);
+        searchResult.setFrom((int) response.getResults().getStart());
+        searchResult.setTo((int) response.getResults().getStart() + response.getResults().size());
+        searchResult.setTotalHits((int) response.getResults().getNumFound());
+
+        List<Facet> facets = new ArrayList<>();
+        if (response.getFacetFields() != null) {
+            for (FacetField facetField : response.getFacetFields()) {
+                Facet facet = new Facet();
+                facet.setLabel(facetField.getName());
+                facet.setField(facetField.getName());
+                List<Value> values = new ArrayList<>();
+                for (FacetField.Count count : facetField.getValues()) {
+                    Value value = new Value();
+                    value.setValue(count.getName());
+                    value.setCount((int) count.getCount());
+                    values.add(value);
                 }
+                facet.setValues(values);
+                facets.add(facet);
             }
+        }
 
-            searchResult.setFacets(facets);
+        searchResult.setFacets(facets);
 
+        if (sink == null) {
+            searchResult.setPublications(convert(response.getResults()));
+        } else {
+            Parser parser = new Parser(sink);
             for (SolrDocument document : response.getResults()) {
-                String xml = document.getFieldValue("__result").toString().replaceAll("\\[|\\]", "");
-
-                parser.parse(new InputSource(new StringReader(xml)));
-                searchResult.setPublications(new ArrayList<>());
-                searchResult.getPublications().addAll(parser.getOMTDPublications());
+                parser.parse(document);
             }
-        } catch (Exception e) {
-            log.error("OpenAireConnector.search", e);
+            searchResult.setPublications(new ArrayList<>());
         }
         return searchResult;
     }
 
+    /*
+        Client of the configured ensemble, overridden by the tests to serve results without solr
+     */
+    OpenAireSolrClient newClient() {
+        return new OpenAireSolrClient(zkHosts);
+    }
+
+    /**
+     * Runs search(Query) on the async executor.
+     * Unlike search(Query), a failed search completes the returned future exceptionally
+     * instead of with an empty result.
+     * Cancelling the returned future interrupts the search: the conversion stops at the next
+     * document (in parallel mode, the conversions not yet started are cancelled) and the solr
+     * request is abandoned once its socket read returns or times out.
+     */
+    public CompletableFuture<SearchResult> searchAsync(Query query) {
+        SearchFuture future = new SearchFuture();
+        try {
+            asyncExecutor.execute(() -> future.run(query));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private class SearchFuture extends CompletableFuture<SearchResult> {
+        private Thread runner;
+
+        void run(Query query) {
+            synchronized (this) {
+                if (isDone()) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            try {
+                complete(cachedSearch(query));
+            } catch (Throwable t) {
+                if (isCancelled()) {
+                    // the interruption of a cancelled search is expected, not a failure
+                    log.debug("Search cancelled: " + query.getKeyword());
+                } else {
+                    completeExceptionally(t);
+                }
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    // do not leak a late cancellation to the next task of the thread
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            synchronized (this) {
+                if (cancelled && runner != null) {
+                    runner.interrupt();
+                }
+            }
+            return cancelled;
+        }
+    }
+
+    private static Executor createAsyncExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(HarvestPipeline.daemonThreads("search-async"));
+        }
+    }
+
+    /**
+     * Fetches only the facet counts of the query (rows=0), without downloading
+     * or converting any __result xml
+     */
+    public SearchResult searchFacets(Query query) {
+        Query facetQuery = new Query();
+        facetQuery.setKeyword(query.getKeyword());
+        facetQuery.setParams(query.getParams());
+        facetQuery.setFacets(query.getFacets());
+        facetQuery.setFrom(query.getFrom());
+        facetQuery.setTo(query.getFrom());
+        return search(facetQuery);
+    }
+
+    /**
+     * Converts the documents of a page to OMTD xml, keeping the solr order
+     */
+    private List<String> convert(SolrDocumentList documents) throws Exception {
+        List<String> publications = new ArrayList<>();
+
+        if (!parallelConversion || documents.size() < 2) {
+            Parser parser = new Parser();
+            for (SolrDocument document : documents) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                parser.parse(document);
+            }
+            publications.addAll(parser.getOMTDPublications());
+            return publications;
+        }
+
+        List<Future<List<String>>> conversions = new ArrayList<>(documents.size());
+        for (SolrDocument document : documents) {
+            conversions.add(conversionWorkers.submit(() -> {
+                Parser parser = conversionParsers.get();
+                try {
+                    parser.parse(document);
+                    return new ArrayList<>(parser.getOMTDPublications());
+                } finally {
+                    parser.clear();
+                }
+            }));
+        }
+
+        boolean converted = false;
+        try {
+            for (Future<List<String>> conversion : conversions) {
+                publications.addAll(conversion.get());
+            }
+            converted = true;
+        } finally {
+            if (!converted) {
+                // a failed conversion or an interrupted search leaves nothing running on the shared workers
+                for (Future<List<String>> conversion : conversions) {
+                    conversion.cancel(true);
+                }
+            }
+        }
+        return publications;
+    }
+
+    public boolean isParallelConversion() {
+        return parallelConversion;
+    }
+
+    /**
+     * Spreads the conversion of the documents of a page across all the cores
+     */
+    public void setParallelConversion(boolean parallelConversion) {
+        this.parallelConversion = parallelConversion;
+    }
+
+    public SearchResultCache getSearchResultCache() {
+        return searchResultCache;
+    }
+
+    /**
+     * @param searchResultCache cache of search(Query), null to disable caching
+     */
+    public void setSearchResultCache(SearchResultCache searchResultCache) {
+        this.searchResultCache = searchResultCache;
+    }
+
+    /*
+        Cached results depend on the facet options, which are not part of the cache key
+     */
+    private void clearSearchResultCache() {
+        if (searchResultCache != null) {
+            searchResultCache.clear();
+        }
+    }
+
+    public Executor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * @param asyncExecutor executor of searchAsync, the shared virtual thread (or cached) executor by default
+     */
+    public void setAsyncExecutor(Executor asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    public FacetOptions getFacetOptions() {
+        return facetOptions;
+    }
+
+    /**
+     * @param facetOptions limit, minimum count and sort applied to every facet without options of its own
+     */
+    public void setFacetOptions(FacetOptions facetOptions) {
+        this.facetOptions = facetOptions;
+        clearSearchResultCache();
+    }
+
+    public Map<String, FacetOptions> getFieldFacetOptions() {
+        return fieldFacetOptions;
+    }
+
+    /**
+     * @param fieldFacetOptions limit, minimum count and sort of specific facets, by facet field
+     */
+    public void setFieldFacetOptions(Map<String, FacetOptions> fieldFacetOptions) {
+        this.fieldFacetOptions = fieldFacetOptions;
+        clearSearchResultCache();
+    }
+
+    /**
+     * Streams the full texts of the publications of the given comma separated OpenAIRE identifiers,
+     * as a zip archive with one entry per publication, named by its identifier, in the order of the identifiers.
+     * Every publication is downloaded from the first of its download urls that works; publications
+     * without any have no entry.
+     *
+     * @return the zip archive, or null if none of the publications has a download url
+     */
     @Override
     public InputStream downloadFullText(String s) {
+        try {
+            List<String> ids = new ArrayList<>();
+            for (String id : s.split(",")) {
+                if (!id.trim().isEmpty()) {
+                    ids.add(id.trim());
+                }
+            }
+
+            Map<String, List<String>> documents = new LinkedHashMap<>();
+            BatchLookup lookup = new BatchLookup(newClient(), batchChunkSize, batchParallelism);
+            Map<String, List<DocumentMetadataRecord>> records = lookup.fetchRecords(ids);
+            for (String id : ids) {
+                List<String> urls = downloadURLs(records.get(id));
+                if (urls.isEmpty()) {
+                    log.warn("No download url for " + id);
+                } else {
+                    documents.put(id, urls);
+                }
+            }
+
+            if (!documents.isEmpty()) {
+                return FullTextFetchers.fetcher.open(documents);
+            }
+        } catch (Exception e) {
+            log.error("OpenAireConnector.downloadFullText", e);
+        }
         return null;
     }
 
+    /*
+        The full text http pool is only created on the first download
+     */
+    private static class FullTextFetchers {
+        private static final FullTextFetcher fetcher = new FullTextFetcher();
+    }
+
+    /*
+        The distinct download urls of the records of a publication, in order
+     */
+    private static List<String> downloadURLs(List<DocumentMetadataRecord> records) {
+        List<String> urls = new ArrayList<>();
+        if (records == null) {
+            return urls;
+        }
+        for (DocumentMetadataRecord record : records) {
+            for (DocumentDistributionInfo distribution : record.getDocument().getPublication().getDistributions()) {
+                for (String url : distribution.getDownloadURLs()) {
+                    if (!urls.contains(url.trim())) {
+                        urls.add(url.trim());
+                    }
+                }
+            }
+        }
+        return urls;
+    }
+
     @Override
     public InputStream fetchMetadata(Query query) {
-        return null;
+        HarvestPipeline pipeline = new HarvestPipeline(newClient(), query,
+                fetchMetadataPageSize, harvestQueueDepth, harvestWorkers);
+        return new MetadataInputStream(pipeline.start());
+    }
+
+    /**
+     * Bulk export of all the publications matching the query, read by concurrent cursors over
+     * disjoint hash partitions of the record identifiers and merged into a single stream.
+     * Unlike fetchMetadata(Query) the publications are not in solr order.
+     *
+     * @param readers number of partitions read concurrently
+     */
+    public InputStream harvestPartitioned(Query query, int readers) {
+        HarvestPipeline pipeline = new HarvestPipeline(newClient(), query,
+                fetchMetadataPageSize, harvestQueueDepth, harvestWorkers, readers);
+        return new MetadataInputStream(pipeline.start());
+    }
+
+    /**
+     * Writes the OMTD xml of all the publications matching the query to the output stream,
+     * as a single document wrapped in an <code>OMTDPublications</code> element.
+     * Records are marshalled straight into the stream as the cursorMark pages arrive.
+     */
+    public void fetchMetadata(Query query, OutputStream outputStream) throws IOException {
+        OpenAireSolrClient client = newClient();
+        SolrQuery solrQuery = client.cursorQuery(query, fetchMetadataPageSize);
+
+        try (XmlStreamPublicationSink sink = new XmlStreamPublicationSink(outputStream)) {
+            Parser parser = new Parser(sink);
+            String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+            boolean done = false;
+
+            while (!done) {
+                QueryResponse response = client.fetchPage(solrQuery, cursorMark);
+                String nextCursorMark = response.getNextCursorMark();
+
+                for (SolrDocument document : response.getResults()) {
+                    parser.parse(document);
+                }
+                sink.flush();
+
+                if (cursorMark.equals(nextCursorMark)) {
+                    done = true;
+                }
+                cursorMark = nextCursorMark;
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Full or filtered dump through the solr /export handler, written to the output stream as a single
+     * document wrapped in an <code>OMTDPublications</code> element, in the order of the record identifiers.
+     * <p>
+     * /export only streams docValues fields, and __result cannot have docValues (its records exceed
+     * the 32766 byte limit of a term). So only the sorted record identifiers are exported, and
+     * the records of every chunk of identifiers are then fetched and converted with a terms lookup.
+     * Requires docValues on __indexrecordidentifier; otherwise use fetchMetadata.
+     */
+    public void exportMetadata(Query query, OutputStream outputStream) throws IOException {
+        OpenAireSolrClient client = newClient();
+
+        try (TupleStream stream = client.exportStream(query);
+             XmlStreamPublicationSink sink = new XmlStreamPublicationSink(outputStream)) {
+            Parser parser = new Parser(sink);
+            List<String> ids = new ArrayList<>(batchChunkSize);
+            for (Tuple tuple = stream.read(); !tuple.EOF; tuple = stream.read()) {
+                String id = tuple.getString(OpenAireSolrClient.identifierField);
+                if (id != null) {
+                    ids.add(id);
+                }
+                if (ids.size() >= batchChunkSize) {
+                    exportChunk(client, ids, parser);
+                    ids.clear();
+                }
+            }
+            exportChunk(client, ids, parser);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /*
+        Converts the records of a chunk of exported identifiers, in the order of the identifiers
+     */
+    private void exportChunk(OpenAireSolrClient client, List<String> ids, Parser parser) throws Exception {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Map<String, SolrDocument> documents = new HashMap<>();
+        for (SolrDocument document : client.lookup(OpenAireSolrClient.identifierField, ids).getResults()) {
+            Object id = document.getFirstValue(OpenAireSolrClient.identifierField);
+            if (id != null) {
+                documents.put(id.toString(), document);
+            }
+        }
+        for (String id : ids) {
+            SolrDocument document = documents.get(id);
+            if (document == null) {
+                // deleted between the export and the lookup
+                log.debug("Record " + id + " is no longer in the index");
+            } else {
+                parser.parse(document);
+            }
+        }
+    }
+
+    /**
+     * Batch lookup of the publications of thousands of OpenAIRE identifiers: chunks of identifiers are
+     * fetched concurrently and their records handed to the sink in the order of the identifiers
+     *
+     * @return the identifiers without a record
+     */
+    public List<String> fetchMetadata(List<String> ids, PublicationSink sink) throws IOException {
+        BatchLookup lookup = new BatchLookup(newClient(), batchChunkSize, batchParallelism);
+        return lookup.fetch(ids, sink);
+    }
+
+    /**
+     * Writes the OMTD xml of the publications of the identifiers to the output stream, in the order
+     * of the identifiers, as a single document wrapped in an <code>OMTDPublications</code> element
+     *
+     * @return the identifiers without a record
+     */
+    public List<String> fetchMetadata(List<String> ids, OutputStream outputStream) throws IOException {
+        try (XmlStreamPublicationSink sink = new XmlStreamPublicationSink(outputStream)) {
+            return fetchMetadata(ids, sink);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes the OMTD xml of the records matching the query that were transformed since the previous
+     * call for the same query, keeping the high-water marks in the file set by the
+     * <code>openaire.harvest.watermarkFile</code> system property
+     *
+     * @return the number of records harvested
+     */
+    public long harvestChanges(Query query, OutputStream outputStream) throws IOException {
+        Path watermarkFile = Paths.get(System.getProperty("openaire.harvest.watermarkFile",
+                System.getProperty("user.home") + File.separator + ".openaire-harvest.properties"));
+        IncrementalHarvester harvester = new IncrementalHarvester(newClient(), watermarkFile,
+                fetchMetadataPageSize);
+        return harvester.harvest(query, outputStream);
     }
 
     @Override
@@ -2,65 +2,338 @@ package eu.openminted.content.connector;
 
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
-import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.io.SolrClientCache;
+import org.apache.solr.client.solrj.io.stream.CloudSolrStream;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
 import org.apache.solr.client.solrj.response.QueryResponse;
-import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.FacetParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class OpenAireSolrClient {
-    private final String hosts = "index1.t.hadoop.research-infrastructures.eu:9983," +
+    /*
+        ZooKeeper ensemble of the OpenAIRE index, unless another one is given
+     */
+    static final String defaultHosts = System.getProperty("openaire.solr.zkHosts",
+            "index1.t.hadoop.research-infrastructures.eu:9983," +
             "index2.t.hadoop.research-infrastructures.eu:9983," +
-            "index3.t.hadoop.research-infrastructures.eu:9983";
+            "index3.t.hadoop.research-infrastructures.eu:9983");
+    private final String hosts;
     private final String defaultCollection = "DMF-index-openaire";
+    public static final String resultField = "__result";
+    public static final String identifierField = "__indexrecordidentifier";
+    /*
+        Index field holding the OpenAIRE identifier (dri:objIdentifier) of the record
+     */
+    public static final String objIdentifierField = "objidentifier";
+    /*
+        Index field of the dri:dateOfTransformation of the record header. Not __dsversion, which is the
+        date the whole datasource was last indexed and changes for records that were not transformed.
+     */
+    public static final String transformationDateField =
+            System.getProperty("openaire.solr.transformationDateField", "dateoftransformation");
+
+    /*
+        Pages starting at or after this offset are served through cursorMark checkpoints
+     */
+    private static final int deepPagingThreshold = Integer.getInteger("openaire.solr.deepPagingThreshold", 10000);
+    private static final CursorCheckpoints checkpoints = new CursorCheckpoints(
+            Integer.getInteger("openaire.solr.checkpointInterval", 10000), 1000,
+            Long.getLong("openaire.solr.checkpointTtlSeconds", 600), TimeUnit.SECONDS);
     private SolrClient solrClient;
 
     private int rows = 10;
     private int start = 0;
 
+    private FacetOptions facetOptions = new FacetOptions();
+    private Map<String, FacetOptions> fieldFacetOptions = new HashMap<>();
+
     public OpenAireSolrClient() {
-        this.solrClient = new CloudSolrClient.Builder().withZkHost(hosts).build();
+        this(defaultHosts);
+    }
+
+    /**
+     * @param hosts ZooKeeper ensemble of the index, as comma separated host:port
+     */
+    public OpenAireSolrClient(String hosts) {
+        this.hosts = hosts;
+        this.solrClient = CloudSolrClientPool.getClient(hosts);
     }
 
     public QueryResponse execute(Query query) throws IOException, SolrServerException {
-        rows = query.getTo() - query.getFrom();
+        return execute(query, new String[0]);
+    }
+
+    /**
+     * Executes the query, fetching only the __result field and the given fields of each document.
+     * When the query asks for no rows (from equals to) only the facet counts are fetched.
+     * The params of the query are applied as filter queries (see QueryFilters).
+     */
+    public QueryResponse execute(Query query, String... fields) throws IOException, SolrServerException {
+        rows = Math.max(query.getTo() - query.getFrom(), 0);
         start = query.getFrom();
 
         SolrQuery solrQuery = (new SolrQuery()).setRows(rows)
-                .setStart(start)
-                .setSort(SolrQuery.SortClause.asc("__indexrecordidentifier"));
+                .setStart(start);
 
-        for (String facet : query.getFacets()) {
-            solrQuery.setFields(facet);
+        if (rows > 0) {
+            solrQuery.setSort(SolrQuery.SortClause.asc(identifierField));
+            solrQuery.setFields(resultField);
+            for (String field : fields) {
+                solrQuery.addField(field);
+            }
         }
 
-        solrQuery.setQuery(query.getKeyword());
+        if (query.getFacets() != null && !query.getFacets().isEmpty()) {
+            solrQuery.setFacet(true);
+            solrQuery.setFacetLimit(facetOptions.getLimit());
+            solrQuery.setFacetMinCount(facetOptions.getMinCount());
+            solrQuery.setFacetSort(facetOptions.getSort());
+            for (String facet : query.getFacets()) {
+                solrQuery.addFacetField(facet);
 
+                FacetOptions options = fieldFacetOptions.get(facet);
+                if (options != null) {
+                    solrQuery.set("f." + facet + "." + FacetParams.FACET_LIMIT, options.getLimit());
+                    solrQuery.set("f." + facet + "." + FacetParams.FACET_MINCOUNT, options.getMinCount());
+                    solrQuery.set("f." + facet + "." + FacetParams.FACET_SORT, options.getSort());
+                }
+            }
+        }
+
+        solrQuery.setQuery(query.getKeyword() == null ? "*:*" : query.getKeyword());
+        QueryFilters.apply(query, solrQuery);
 
+        if (rows > 0 && start >= deepPagingThreshold) {
+            return executeDeep(solrQuery);
+        }
         return solrClient.query(defaultCollection, solrQuery);
     }
 
-    public void runWithCursor() throws IOException, SolrServerException {
-        SolrClient solrClient = new CloudSolrClient.Builder().withZkHost(hosts).build();
-        SolrQuery q = (new SolrQuery()).setRows(5).setSort(SolrQuery.SortClause.asc("__indexrecordidentifier")).setFields("__result").setQuery("*:*");
-        String cursorMark = CursorMarkParams.CURSOR_MARK_START;
-        boolean done = false;
+    /**
+     * Serves a deep page with cursorMark: the cursor resumes from the nearest checkpoint
+     * and skips to the requested offset fetching identifiers only, recording new checkpoints on the way.
+     * The start of the returned results is set to the requested offset, as with start/rows paging.
+     */
+    private QueryResponse executeDeep(SolrQuery solrQuery) throws IOException, SolrServerException {
+        String signature = signature(solrQuery);
+        QueryResponse response = executeDeep(solrQuery.getCopy(), signature, checkpoints.floor(signature, start));
+        if (response == null) {
+            // documents were added or removed since the checkpoint was recorded, so its offset is stale
+            checkpoints.remove(signature);
+            response = executeDeep(solrQuery.getCopy(), signature, CursorCheckpoints.start);
+        }
+        return response;
+    }
+
+    /*
+        Serves the page from the given checkpoint, or returns null if the result set no longer matches it
+     */
+    private QueryResponse executeDeep(SolrQuery solrQuery, String signature, CursorCheckpoints.Checkpoint checkpoint)
+            throws IOException, SolrServerException {
+        int offset = checkpoint.getOffset();
+        String cursorMark = checkpoint.getCursorMark();
 
-        while (!done) {
-            q.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
-            QueryResponse rsp = solrClient.query("DMF-index-openaire", q);
-            String nextCursorMark = rsp.getNextCursorMark();
+        SolrQuery skipQuery = solrQuery.getCopy();
+        skipQuery.remove(CommonParams.START);
+        skipQuery.setFields(identifierField);
+        skipQuery.setFacet(false);
 
-            for (SolrDocument document : rsp.getResults()) {
-                System.out.println(document.getFieldValue("__result"));
+        while (offset < start) {
+            int skip = Math.min(start, (offset / checkpoints.getInterval() + 1) * checkpoints.getInterval()) - offset;
+            skipQuery.setRows(skip);
+            skipQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+            QueryResponse response = solrClient.query(defaultCollection, skipQuery);
+            long numFound = response.getResults().getNumFound();
+            if (!checkpoint.isValid(numFound)) {
+                return null;
             }
 
-            if (cursorMark.equals(nextCursorMark)) {
-                done = true;
+            int skipped = response.getResults().size();
+            offset += skipped;
+            cursorMark = response.getNextCursorMark();
+            checkpoints.put(signature, offset, cursorMark, numFound);
+
+            if (skipped < skip) {
+                // the result set ends before the requested offset
+                break;
             }
-            cursorMark = nextCursorMark;
         }
+
+        solrQuery.remove(CommonParams.START);
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        QueryResponse response = solrClient.query(defaultCollection, solrQuery);
+        long numFound = response.getResults().getNumFound();
+        if (!checkpoint.isValid(numFound)) {
+            return null;
+        }
+        response.getResults().setStart(start);
+        checkpoints.put(signature, start + response.getResults().size(), response.getNextCursorMark(), numFound);
+        return response;
+    }
+
+    /**
+     * Identifies the result set (and its order) of a query, whatever the page.
+     * The checkpoints are shared by all the clients, so the ensemble is part of the signature:
+     * the same query against another index has other cursorMarks.
+     */
+    private String signature(SolrQuery solrQuery) {
+        return hosts + "|" + solrQuery.getQuery() + "|" + Arrays.toString(solrQuery.getFilterQueries())
+                + "|" + solrQuery.get(CommonParams.SORT);
+    }
+
+    public FacetOptions getFacetOptions() {
+        return facetOptions;
+    }
+
+    /**
+     * @param facetOptions options applied to every facet without options of its own
+     */
+    public void setFacetOptions(FacetOptions facetOptions) {
+        this.facetOptions = facetOptions;
+    }
+
+    public Map<String, FacetOptions> getFieldFacetOptions() {
+        return fieldFacetOptions;
+    }
+
+    /**
+     * @param fieldFacetOptions options of specific facets, by facet field
+     */
+    public void setFieldFacetOptions(Map<String, FacetOptions> fieldFacetOptions) {
+        this.fieldFacetOptions = fieldFacetOptions;
+    }
+
+    /**
+     * Builds the query used for paging through the whole result set of a query with cursorMark
+     */
+    public SolrQuery cursorQuery(Query query, int rows) {
+        SolrQuery solrQuery = (new SolrQuery()).setRows(rows)
+                .setSort(SolrQuery.SortClause.asc(identifierField))
+                .setFields(resultField)
+                .setQuery(query.getKeyword() == null ? "*:*" : query.getKeyword());
+        QueryFilters.apply(query, solrQuery);
+        return solrQuery;
+    }
+
+    /**
+     * Builds a cursor query restricted to the records transformed at or after the given date,
+     * which also fetches their transformation date
+     *
+     * @param since ISO-8601 instant, or null for all the records
+     */
+    public SolrQuery incrementalQuery(Query query, int rows, String since) {
+        SolrQuery solrQuery = cursorQuery(query, rows);
+        if (since != null) {
+            solrQuery.addFilterQuery(transformationDateField + ":[" + since + " TO *]");
+        }
+        return solrQuery;
+    }
+
+    /**
+     * Restricts a cursor query to one of the disjoint hash partitions of the record identifiers
+     *
+     * @param partitions number of partitions the result set is split into
+     * @param partition  the partition, from 0 to partitions - 1
+     */
+    public SolrQuery partitionQuery(SolrQuery solrQuery, int partitions, int partition) {
+        SolrQuery partitionQuery = solrQuery.getCopy();
+        partitionQuery.addFilterQuery("{!hash workers=" + partitions + " worker=" + partition + "}");
+        partitionQuery.set("partitionKeys", identifierField);
+        return partitionQuery;
+    }
+
+    /**
+     * Opens a stream over the /export handler of the collection, which sorts and streams the whole
+     * result set without paging or ranking. Only the record identifiers (and the given fields) are
+     * exported: every exported field must have docValues, and __result cannot have them since
+     * docValues terms are limited to 32766 bytes. The records are fetched with lookup instead.
+     * The stream must be closed, which also releases its solr clients.
+     */
+    public TupleStream exportStream(Query query, String... fields) throws IOException {
+        ModifiableSolrParams params = new ModifiableSolrParams();
+        params.set(CommonParams.Q, query.getKeyword() == null ? "*:*" : query.getKeyword());
+        for (String filterQuery : QueryFilters.filterQueries(query)) {
+            params.add(CommonParams.FQ, filterQuery);
+        }
+        params.set(CommonParams.QT, "/export");
+        params.set(CommonParams.SORT, identifierField + " asc");
+
+        StringBuilder fieldList = new StringBuilder(identifierField);
+        for (String field : fields) {
+            fieldList.append(',').append(field);
+        }
+        params.set(CommonParams.FL, fieldList.toString());
+
+        final SolrClientCache solrClientCache = new SolrClientCache();
+        CloudSolrStream stream = new CloudSolrStream(hosts, defaultCollection, params) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    solrClientCache.close();
+                }
+            }
+        };
+        StreamContext streamContext = new StreamContext();
+        streamContext.setSolrClientCache(solrClientCache);
+        stream.setStreamContext(streamContext);
+        stream.open();
+        return stream;
+    }
+
+    /**
+     * Fetches the page starting at the given cursorMark, handing every document to the callback
+     * as soon as it is decoded from the javabin response instead of building the whole page first.
+     * The documents of the returned response are empty, its nextCursorMark is set.
+     */
+    public QueryResponse streamPage(SolrQuery solrQuery, String cursorMark, StreamingResponseCallback callback)
+            throws IOException, SolrServerException {
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        return solrClient.queryAndStreamResponse(defaultCollection, solrQuery, callback);
+    }
+
+    /**
+     * Fetches the documents whose given field holds any of the values, with their __result and identifier fields.
+     * The request is posted, since long identifier lists do not fit in a url.
+     */
+    public QueryResponse lookup(String field, Collection<String> values) throws IOException, SolrServerException {
+        return lookup(field, values, 0, values.size());
+    }
+
+    /**
+     * Fetches a page of the documents whose given field holds any of the values, sorted by record identifier
+     * so that consecutive pages do not overlap. The filter is not cached, since a list of identifiers
+     * is rarely looked up twice and would only evict the filters of the searches.
+     */
+    public QueryResponse lookup(String field, Collection<String> values, int start, int rows)
+            throws IOException, SolrServerException {
+        SolrQuery solrQuery = (new SolrQuery("*:*")).setStart(start).setRows(rows)
+                .setFields(resultField, objIdentifierField, identifierField)
+                .setSort(identifierField, SolrQuery.ORDER.asc);
+        solrQuery.addFilterQuery(QueryFilters.termsFilter(field, values, false));
+        return solrClient.query(defaultCollection, solrQuery, SolrRequest.METHOD.POST);
+    }
+
+    /**
+     * Fetches the page starting at the given cursorMark.
+     * The last page is reached when the next cursorMark of the response equals the given one.
+     */
+    public QueryResponse fetchPage(SolrQuery solrQuery, String cursorMark) throws IOException, SolrServerException {
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        return solrClient.query(defaultCollection, solrQuery);
     }
 }
@@ -1,8 +1,12 @@
 package eu.openminted.content.connector;
 
+import eu.openminted.content.openaire.PublicationListSink;
 import eu.openminted.content.openaire.PublicationResultHandler;
+import eu.openminted.content.openaire.PublicationSink;
+import eu.openminted.content.openaire.RecordCache;
 import eu.openminted.registry.domain.DocumentMetadataRecord;
 import org.apache.log4j.Logger;
+import org.apache.solr.common.SolrDocument;
 import org.hsqldb.lib.StringInputStream;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -11,23 +15,101 @@ import javax.xml.bind.JAXBException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 
 public class Parser {
     private static Logger log = Logger.getLogger(Parser.class.getName());
+
+    /*
+        The factory is looked up once; SAXParsers are not thread-safe,
+        so every thread keeps its own and resets it after each document.
+     */
+    private static final SAXParserFactory saxParserFactory = SAXParserFactory.newInstance();
+    private static final ThreadLocal<SAXParser> saxParsers = new ThreadLocal<>();
+
     private PublicationResultHandler handler;
 
     public Parser() throws JAXBException, ParserConfigurationException, SAXException, IOException {
-        handler = new PublicationResultHandler();
+        this(false);
+    }
+
+    public Parser(boolean fragment) throws JAXBException, ParserConfigurationException, SAXException, IOException {
+        this(new PublicationListSink(fragment));
+    }
+
+    /**
+     * @param sink receives every converted record, as soon as its result element ends
+     */
+    public Parser(PublicationSink sink) throws JAXBException, ParserConfigurationException, SAXException, IOException {
+        handler = new PublicationResultHandler(sink);
     }
 
     public void parse(InputSource inputSource) throws IOException, SAXException, ParserConfigurationException {
-        SAXParserFactory factory = SAXParserFactory.newInstance();
-        SAXParser saxParser = factory.newSAXParser();
-        saxParser.parse(inputSource, handler);
+        SAXParser saxParser = saxParser();
+        try {
+            saxParser.parse(inputSource, handler);
+        } finally {
+            saxParser.reset();
+        }
+    }
+
+    private static SAXParser saxParser() throws ParserConfigurationException, SAXException {
+        SAXParser saxParser = saxParsers.get();
+        if (saxParser == null) {
+            synchronized (saxParserFactory) {
+                saxParser = saxParserFactory.newSAXParser();
+            }
+            saxParsers.set(saxParser);
+        }
+        return saxParser;
+    }
+
+    /**
+     * Parses the OpenAIRE xml stored in the __result field of a solr document.
+     * Every value of the field is handed to the parser as it was decoded from the response,
+     * without being copied or stringified.
+     */
+    public void parse(SolrDocument document) throws IOException, SAXException, ParserConfigurationException {
+        Collection<Object> values = document.getFieldValues(OpenAireSolrClient.resultField);
+        if (values == null) {
+            return;
+        }
+
+        for (Object value : values) {
+            if (value instanceof byte[]) {
+                parse(new InputSource(new ByteArrayInputStream((byte[]) value)));
+            } else if (value instanceof ByteBuffer) {
+                ByteBuffer buffer = (ByteBuffer) value;
+                parse(new InputSource(new ByteArrayInputStream(buffer.array(),
+                        buffer.arrayOffset() + buffer.position(), buffer.remaining())));
+            } else if (value != null) {
+                parse(new InputSource(new StringReader(value.toString())));
+            }
+        }
+    }
+
+    public void setRecordCache(RecordCache recordCache) {
+        handler.setRecordCache(recordCache);
+    }
+
+    public void setSink(PublicationSink sink) {
+        handler.setSink(sink);
+    }
+
+    public void clear() {
+        handler.clearOMTDPublications();
+    }
+
+    /**
+     * @return the raw dri:dateOfTransformation of the last result parsed, null if it had none
+     */
+    public String getDateOfTransformation() {
+        return handler.getDateOfTransformation();
     }
 
     public List<String> getOMTDPublications() {
@@ -0,0 +1,177 @@
+package eu.openminted.content.connector;
+
+import org.apache.log4j.Logger;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.util.ClientUtils;
+
+import java.util.*;
+
+/**
+ * Translates the params of a query into Solr filter queries.
+ * <p>
+ * Every param becomes one fq clause, matching any of its values, so that Solr skips scoring it
+ * and caches it in its filterCache independently of the keyword and the other params.
+ * Values are sorted, so the same set of values always gives the same clause (and the same cache entry).
+ * Only the known params are translated; any other param is ignored, so that callers cannot
+ * filter on arbitrary index fields.
+ */
+public class QueryFilters {
+    private static Logger log = Logger.getLogger(QueryFilters.class.getName());
+
+    public static final String publicationId = "openairePublicationID";
+    public static final String documentLanguage = "documentLanguage";
+    public static final String publicationType = "publicationType";
+    public static final String publicationYear = "publicationYear";
+    public static final String collectedFrom = "collectedFrom";
+
+    /*
+        Index fields of the known params
+     */
+    private static final Map<String, String> fields = new HashMap<>();
+
+    /*
+        Matches no document, for a param none of whose values can be translated
+     */
+    static final String matchNothing = "-*:*";
+
+    static {
+        fields.put(publicationId, OpenAireSolrClient.objIdentifierField);
+        fields.put(documentLanguage, "resultlanguagename");
+        fields.put(publicationType, "instancetypename");
+        fields.put(publicationYear, "resultdateofacceptance");
+        fields.put(collectedFrom, "collectedfromname");
+    }
+
+    private QueryFilters() {
+    }
+
+    /**
+     * @return the filter queries of the params of the query, sorted by param name
+     */
+    public static List<String> filterQueries(Query query) {
+        List<String> filterQueries = new ArrayList<>();
+        if (query.getParams() == null) {
+            return filterQueries;
+        }
+
+        for (Map.Entry<String, List<String>> param : new TreeMap<>(query.getParams()).entrySet()) {
+            if (param.getValue() == null || param.getValue().isEmpty()) {
+                continue;
+            }
+
+            String field = fields.get(param.getKey());
+            if (field == null) {
+                log.warn("Ignoring unknown param " + param.getKey());
+                continue;
+            }
+
+            String filterQuery = param.getKey().equals(publicationYear)
+                    ? yearFilter(field, param.getValue())
+                    : termsFilter(field, param.getValue());
+            if (filterQuery != null) {
+                filterQueries.add(filterQuery);
+            }
+        }
+        return filterQueries;
+    }
+
+    /**
+     * Adds the filter queries of the params of the query to the solr query
+     */
+    public static void apply(Query query, SolrQuery solrQuery) {
+        for (String filterQuery : filterQueries(query)) {
+            solrQuery.addFilterQuery(filterQuery);
+        }
+    }
+
+    /**
+     * Matches any of the values, through the terms query parser which does not build
+     * a boolean clause per value (so thousands of identifiers stay cheap)
+     */
+    static String termsFilter(String field, Collection<String> values) {
+        return termsFilter(field, values, true);
+    }
+
+    /**
+     * @param cache false to keep the filter out of the filterCache, for one-off lists of values
+     */
+    static String termsFilter(String field, Collection<String> values, boolean cache) {
+        SortedSet<String> terms = new TreeSet<>();
+        boolean separated = false;
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                terms.add(value.trim());
+                separated |= value.indexOf(',') >= 0;
+            }
+        }
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        if (separated) {
+            // the terms parser splits its values on commas
+            StringBuilder filterQuery = new StringBuilder(cache ? "" : "{!cache=false}").append(field).append(":(");
+            String separator = "";
+            for (String term : terms) {
+                filterQuery.append(separator).append(ClientUtils.escapeQueryChars(term));
+                separator = " OR ";
+            }
+            return filterQuery.append(')').toString();
+        }
+
+        StringBuilder filterQuery = new StringBuilder("{!terms f=").append(field)
+                .append(cache ? "" : " cache=false").append('}');
+        String separator = "";
+        for (String term : terms) {
+            filterQuery.append(separator).append(term);
+            separator = ",";
+        }
+        return filterQuery.toString();
+    }
+
+    /**
+     * Matches dates within any of the years or inclusive year ranges (yyyy or yyyy-yyyy).
+     * When none of the values is a year, nothing matches: dropping the filter would widen the query
+     * to every year.
+     */
+    static String yearFilter(String field, Collection<String> values) {
+        SortedSet<String> ranges = new TreeSet<>();
+        for (String value : values) {
+            if (value == null || value.trim().isEmpty()) {
+                continue;
+            }
+
+            String[] years = value.trim().split("\\s*-\\s*");
+            try {
+                int from = Integer.parseInt(years[0]);
+                int to = years.length > 1 ? Integer.parseInt(years[1]) : from;
+                if (years.length > 2 || from < 0 || to < from || to > 9998) {
+                    throw new NumberFormatException();
+                }
+                ranges.add(String.format("[%04d-01-01T00:00:00Z TO %04d-01-01T00:00:00Z}", from, to + 1));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring malformed " + publicationYear + " " + value);
+            }
+        }
+        if (ranges.isEmpty()) {
+            return hasValue(values) ? matchNothing : null;
+        }
+
+        StringBuilder filterQuery = new StringBuilder(field).append(":(");
+        String separator = "";
+        for (String range : ranges) {
+            filterQuery.append(separator).append(range);
+            separator = " OR ";
+        }
+        return filterQuery.append(')').toString();
+    }
+
+    private static boolean hasValue(Collection<String> values) {
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,194 @@
+package eu.openminted.content.connector;
+
+import eu.openminted.content.openaire.OMTDMarshallers;
+import eu.openminted.registry.domain.Facet;
+import eu.openminted.registry.domain.Value;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of converted search results, keyed on the normalised query
+ * (keyword, params, facets, from and to) and on the output format of the OMTD marshallers.
+ * <p>
+ * Entries expire after a fixed time to live and the least recently used ones are evicted
+ * once the estimated size of the cached publications exceeds the maximum.
+ * Results are copied in and out, down to their facet values, so callers cannot alter cached entries.
+ */
+public class SearchResultCache {
+    private final long maxBytes;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    public SearchResultCache(long maxBytes, long ttl, TimeUnit unit) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * @return a copy of the cached result of the query, or null
+     */
+    public synchronized SearchResult get(Query query) {
+        String key = key(query);
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.created > ttlNanos) {
+            remove(key);
+            entry = null;
+        }
+
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return copy(entry.searchResult);
+    }
+
+    public synchronized void put(Query query, SearchResult searchResult) {
+        Entry entry = new Entry(copy(searchResult), System.nanoTime());
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+
+        String key = key(query);
+        remove(key);
+        entries.put(key, entry);
+        bytes += entry.bytes;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().bytes;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.bytes;
+        }
+    }
+
+    /**
+     * Builds the same key for queries that differ only in the order of their params and facets.
+     * The params enter the key as the filter queries solr receives, so that params which give
+     * different filters never share an entry and ignored params do not split entries.
+     */
+    static String key(Query query) {
+        StringBuilder key = new StringBuilder();
+        key.append(query.getKeyword() == null ? "*:*" : query.getKeyword().trim()).append('\u0000');
+
+        for (String filterQuery : QueryFilters.filterQueries(query)) {
+            key.append(filterQuery).append('\u0000');
+        }
+
+        if (query.getFacets() != null) {
+            List<String> facets = new ArrayList<>(query.getFacets());
+            Collections.sort(facets);
+            key.append(facets).append('\u0000');
+        }
+
+        // the same query gives different publications when the marshallers switch formatting
+        key.append(OMTDMarshallers.isFormattedOutput() ? "formatted" : "compact").append('\u0000');
+
+        return key.append(query.getFrom()).append('-').append(query.getTo()).toString();
+    }
+
+    private static SearchResult copy(SearchResult searchResult) {
+        SearchResult copy = new SearchResult();
+        copy.setFrom(searchResult.getFrom());
+        copy.setTo(searchResult.getTo());
+        copy.setTotalHits(searchResult.getTotalHits());
+        if (searchResult.getFacets() != null) {
+            List<Facet> facets = new ArrayList<>(searchResult.getFacets().size());
+            for (Facet facet : searchResult.getFacets()) {
+                facets.add(copy(facet));
+            }
+            copy.setFacets(facets);
+        }
+        copy.setPublications(searchResult.getPublications() == null ? null : new ArrayList<>(searchResult.getPublications()));
+        return copy;
+    }
+
+    private static Facet copy(Facet facet) {
+        if (facet == null) {
+            return null;
+        }
+        Facet copy = new Facet();
+        copy.setField(facet.getField());
+        copy.setLabel(facet.getLabel());
+        if (facet.getValues() != null) {
+            List<Value> values = new ArrayList<>(facet.getValues().size());
+            for (Value value : facet.getValues()) {
+                Value valueCopy = null;
+                if (value != null) {
+                    valueCopy = new Value();
+                    valueCopy.setValue(value.getValue());
+                    valueCopy.setCount(value.getCount());
+                }
+                values.add(valueCopy);
+            }
+            copy.setValues(values);
+        }
+        return copy;
+    }
+
+    private static class Entry {
+        private final SearchResult searchResult;
+        private final long created;
+        private final long bytes;
+
+        Entry(SearchResult searchResult, long created) {
+            this.searchResult = searchResult;
+            this.created = created;
+            this.bytes = estimate(searchResult);
+        }
+
+        private static long estimate(SearchResult searchResult) {
+            long bytes = 128;
+            if (searchResult.getPublications() != null) {
+                for (String publication : searchResult.getPublications()) {
+                    bytes += 40 + 2L * publication.length();
+                }
+            }
+            if (searchResult.getFacets() != null) {
+                for (Facet facet : searchResult.getFacets()) {
+                    bytes += 64 + (facet.getValues() == null ? 0 : 64L * facet.getValues().size());
+                }
+            }
+            return bytes;
+        }
+    }
+}
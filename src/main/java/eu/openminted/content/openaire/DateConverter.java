@@ -0,0 +1,131 @@
+package eu.openminted.content.openaire;
+
+import eu.openminted.registry.domain.Date;
+import org.apache.log4j.Logger;
+
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Thread-safe conversion of the OpenAIRE dates to OMTD dates.
+ * <p>
+ * Dates are parsed directly from their characters, without SimpleDateFormat or GregorianCalendar,
+ * and the DatatypeFactory is looked up once (its factory methods keep no state).
+ * Malformed values are logged at debug level and converted to null.
+ */
+public class DateConverter {
+    private static Logger log = Logger.getLogger(DateConverter.class.getName());
+
+    private static final DatatypeFactory datatypeFactory = createDatatypeFactory();
+
+    private DateConverter() {
+    }
+
+    /**
+     * Converts a local date time (yyyy-MM-dd'T'HH:mm:ss, as in dri:dateOfCollection and dri:dateOfTransformation)
+     * to an XMLGregorianCalendar in the default time zone. Anything after the seconds is ignored.
+     *
+     * @return the calendar, or null if the value is malformed
+     */
+    public static XMLGregorianCalendar toXMLGregorianCalendar(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String date = value.trim();
+        if (date.length() < 19
+                || date.charAt(4) != '-' || date.charAt(7) != '-'
+                || (date.charAt(10) != 'T' && date.charAt(10) != ' ')
+                || date.charAt(13) != ':' || date.charAt(16) != ':') {
+            log.debug("Malformed date time: " + value);
+            return null;
+        }
+
+        int year = number(date, 0, 4);
+        int month = number(date, 5, 7);
+        int day = number(date, 8, 10);
+        int hour = number(date, 11, 13);
+        int minute = number(date, 14, 16);
+        int second = number(date, 17, 19);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            log.debug("Malformed date time: " + value);
+            return null;
+        }
+
+        try {
+            int timezone = ZoneId.systemDefault().getRules()
+                    .getOffset(LocalDateTime.of(year, month, day, hour, minute, second))
+                    .getTotalSeconds() / 60;
+            return datatypeFactory.newXMLGregorianCalendar(year, month, day, hour, minute, second, 0, timezone);
+        } catch (RuntimeException e) {
+            // for instance the 31st of a shorter month
+            log.debug("Malformed date time: " + value);
+            return null;
+        }
+    }
+
+    /**
+     * Converts a date with optional month and day (yyyy, yyyy-MM or yyyy-MM-dd, as in dateofacceptance)
+     * to an OMTD date. An empty value gives an empty date.
+     *
+     * @return the date, or null if the value is malformed
+     */
+    public static Date toDate(String value) {
+        Date date = new Date();
+        if (value == null || value.trim().isEmpty()) {
+            return date;
+        }
+
+        String[] parts = value.trim().split("-");
+        if (parts.length > 3) {
+            log.debug("Malformed date: " + value);
+            return null;
+        }
+
+        int[] numbers = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i].trim();
+            numbers[i] = part.isEmpty() || part.length() > 4 ? -1 : number(part, 0, part.length());
+            if (numbers[i] < 0) {
+                log.debug("Malformed date: " + value);
+                return null;
+            }
+        }
+
+        date.setYear(numbers[0]);
+        if (numbers.length > 1) {
+            date.setMonth(numbers[1]);
+        }
+        if (numbers.length > 2) {
+            date.setDay(numbers[2]);
+        }
+        return date;
+    }
+
+    /*
+        Parses the decimal digits between start and end, -1 if any character is not a digit
+     */
+    private static int number(String value, int start, int end) {
+        int number = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        return number;
+    }
+
+    private static DatatypeFactory createDatatypeFactory() {
+        try {
+            return DatatypeFactory.newInstance();
+        } catch (DatatypeConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
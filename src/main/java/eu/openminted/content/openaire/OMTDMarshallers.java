@@ -0,0 +1,76 @@
+package eu.openminted.content.openaire;
+
+import eu.openminted.registry.domain.DocumentMetadataRecord;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Process-wide JAXBContext of the OMTD domain model and a pool of its Marshallers.
+ * <p>
+ * The context is built once (it is thread-safe), Marshallers are not thread-safe and are
+ * handed out through acquire/release. Formatted output is on by default and can be turned off
+ * for machine consumers, with setFormattedOutput or the system property
+ * <code>openaire.omtd.formattedOutput</code>.
+ */
+public class OMTDMarshallers {
+    private static volatile boolean formattedOutput =
+            Boolean.parseBoolean(System.getProperty("openaire.omtd.formattedOutput", "true"));
+
+    private static final Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
+    private OMTDMarshallers() {
+    }
+
+    private static class ContextHolder {
+        private static final JAXBContext context = createContext();
+
+        private static JAXBContext createContext() {
+            try {
+                return JAXBContext.newInstance(DocumentMetadataRecord.class);
+            } catch (JAXBException e) {
+                throw new IllegalStateException("Cannot create the JAXBContext of the OMTD domain model", e);
+            }
+        }
+    }
+
+    public static JAXBContext getContext() {
+        return ContextHolder.context;
+    }
+
+    /**
+     * Builds the JAXBContext and a first Marshaller, so that the first search does not pay for them
+     */
+    public static void warmUp() throws JAXBException {
+        release(acquire(false));
+    }
+
+    /**
+     * @param fragment when true, the xml declaration is omitted so that records can be
+     *                 embedded in an enclosing document
+     */
+    public static Marshaller acquire(boolean fragment) throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = getContext().createMarshaller();
+        }
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, formattedOutput);
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, fragment);
+        return marshaller;
+    }
+
+    public static void release(Marshaller marshaller) {
+        marshallers.offer(marshaller);
+    }
+
+    public static boolean isFormattedOutput() {
+        return formattedOutput;
+    }
+
+    public static void setFormattedOutput(boolean formattedOutput) {
+        OMTDMarshallers.formattedOutput = formattedOutput;
+    }
+}
@@ -0,0 +1,53 @@
+package eu.openminted.content.openaire;
+
+import eu.openminted.registry.domain.DocumentMetadataRecord;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the records as marshalled xml strings
+ */
+public class PublicationListSink implements PublicationSink {
+    private static final String declaration = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private final List<String> publications = new ArrayList<>();
+    private final boolean fragment;
+
+    /**
+     * @param fragment when true, publications are marshalled without the xml declaration,
+     *                 so that they can be embedded in an enclosing document
+     */
+    public PublicationListSink(boolean fragment) {
+        this.fragment = fragment;
+    }
+
+    @Override
+    public void accept(DocumentMetadataRecord record) throws JAXBException {
+        StringWriter sw = new StringWriter();
+        Marshaller jaxbMarshaller = OMTDMarshallers.acquire(fragment);
+        try {
+            jaxbMarshaller.marshal(record, sw);
+        } finally {
+            OMTDMarshallers.release(jaxbMarshaller);
+        }
+        publications.add(sw.toString());
+    }
+
+    @Override
+    public void accept(String record) {
+        publications.add(fragment ? record : declaration + record);
+    }
+
+    @Override
+    public void accept(DocumentMetadataRecord record, String xml) {
+        accept(xml);
+    }
+
+    public List<String> getPublications() {
+        return publications;
+    }
+}
@@ -7,17 +7,11 @@ import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.datatype.DatatypeConfigurationException;
-import javax.xml.datatype.DatatypeFactory;
 import javax.xml.datatype.XMLGregorianCalendar;
 import java.io.StringWriter;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.GregorianCalendar;
+import java.util.Collections;
 import java.util.List;
 
 public class PublicationResultHandler extends DefaultHandler {
@@ -30,437 +24,577 @@ public class PublicationResultHandler extends DefaultHandler {
     private Title title;
     private RelatedPerson author;
     private DocumentDistributionInfo documentDistributionInfo;
-    private String description = "";
-    private String value = "";
+    /*
+        Text of the current element and of the abstract, accumulated over all the characters() chunks.
+        The text is only turned into a String when a mapped element ends and asks for it.
+     */
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder description = new StringBuilder();
+    private String value;
     private boolean hasResults = false;
     private boolean hasAuthor = false;
     private boolean hasRelation = false;
     private boolean hasKeyword = false;
     private boolean hasSubject = false;
     private boolean hasAbstract = false;
-    private Marshaller jaxbMarshaller;
+    private PublicationSink sink;
 
+    /*
+        Records already converted are taken from the cache; the rest of their xml is skipped
+     */
+    private RecordCache recordCache = RecordCache.getDefault();
+    private String objIdentifier;
+    private String dateOfTransformation;
+    private String cachedRecord;
+    private boolean skipping = false;
 
+    public PublicationResultHandler() throws JAXBException {
+        this(false);
+    }
 
-    private List<String> OMTDPublications;
+    /**
+     * @param fragment when true, publications are marshalled without the xml declaration,
+     *                 so that they can be embedded in an enclosing document
+     */
+    public PublicationResultHandler(boolean fragment) throws JAXBException {
+        this(new PublicationListSink(fragment));
+    }
 
-    public PublicationResultHandler() throws JAXBException {
-        OMTDPublications = new ArrayList<>();
-        JAXBContext jaxbContext = JAXBContext.newInstance(DocumentMetadataRecord.class);
-        jaxbMarshaller = jaxbContext.createMarshaller();
-        jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+    public PublicationResultHandler(PublicationSink sink) throws JAXBException {
+        this.sink = sink;
+        // builds the shared JAXBContext on first use
+        OMTDMarshallers.getContext();
     }
 
     @Override
     public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        if (skipping && !qName.equals("result")) {
+            return;
+        }
+        resetText();
 
-        /*
-            DocumentMetadataRecord
-         */
-        if (qName.equalsIgnoreCase("result")) {
-            documentMetadataRecord = new DocumentMetadataRecord();
-            Document document = new Document();
-            publication = new DocumentInfo();
-            document.setPublication(publication);
-            metadataHeaderInfo = new MetadataHeaderInfo();
-            documentMetadataRecord.setMetadataHeaderInfo(metadataHeaderInfo);
-            documentMetadataRecord.setDocument(document);
+        switch (qName) {
             /*
-                Set by default the document type to abstract until we find a solution to this
+                DocumentMetadataRecord
              */
-            publication.setDocumentType(DocumentTypeEnum.ABSTRACT);
-        }
-        /*
-            Title
-        */
-        else if (qName.equalsIgnoreCase("title")) {
-            String classname = attributes.getValue("classname");
-            title = new Title();
-            TitleTypeEnum titleTypeEnum;
-            try {
-                if (classname != null) {
-                    titleTypeEnum = TitleTypeEnum.valueOf(classname);
-                    title.setTitleType(titleTypeEnum);
+            case "result": {
+                objIdentifier = null;
+                dateOfTransformation = null;
+                cachedRecord = null;
+                skipping = false;
+
+                documentMetadataRecord = new DocumentMetadataRecord();
+                Document document = new Document();
+                publication = new DocumentInfo();
+                document.setPublication(publication);
+                metadataHeaderInfo = new MetadataHeaderInfo();
+                documentMetadataRecord.setMetadataHeaderInfo(metadataHeaderInfo);
+                documentMetadataRecord.setDocument(document);
+                /*
+                    Set by default the document type to abstract until we find a solution to this
+                 */
+                publication.setDocumentType(DocumentTypeEnum.ABSTRACT);
+                break;
+            }
+            /*
+                Title
+            */
+            case "title": {
+                String classname = attributes.getValue("classname");
+                title = new Title();
+                TitleTypeEnum titleTypeEnum;
+                try {
+                    if (classname != null) {
+                        titleTypeEnum = TitleTypeEnum.valueOf(classname);
+                        title.setTitleType(titleTypeEnum);
+                    }
+                } catch (IllegalArgumentException ex) {
+                    // main title otherwise?
                 }
-            } catch (IllegalArgumentException ex) {
-                // main title otherwise?
+                break;
             }
-        }
-        /*
-            Authors
-            Authors as long as other elements are provided by the <rel> elements,
-            in combination with their enclosed elements
-         */
-        else if (qName.equalsIgnoreCase("rel")) {
-            hasRelation = true;
-        }
-        else if (qName.equalsIgnoreCase("to")) {
-            String classAttribute = attributes.getValue("class");
-            ResultRelationsEnum resultRelationsEnum = ResultRelationsEnum.fromValue(classAttribute);
-
-            switch (resultRelationsEnum) {
-                case HAS_AUTHOR:
-                    hasAuthor = true;
-                    author = new RelatedPerson();
-                    break;
-                default:
-                    hasAuthor = false;
-                    break;
+            /*
+                Authors
+                Authors as long as other elements are provided by the <rel> elements,
+                in combination with their enclosed elements
+             */
+            case "rel": {
+                hasRelation = true;
+                break;
             }
-        }
-        /*
-            PublicationType
-         */
-        else if (qName.equalsIgnoreCase("instancetype")) {
-            String classname = attributes.getValue("classname");
-            PublicationTypeEnum publicationTypeEnum;
-            try {
-                publicationTypeEnum = PublicationTypeEnum.fromValue(classname);
-            } catch (IllegalArgumentException ex) {
-                publicationTypeEnum = PublicationTypeEnum.OTHER;
-                String schemeid = attributes.getValue("schemeid");
-                if (!schemeid.isEmpty())
-                    publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/" + schemeid + "/" + classname);
-                else {
-                    publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/dnet:publication_resource/UNKNOWN");
+            case "to": {
+                String classAttribute = attributes.getValue("class");
+                ResultRelationsEnum resultRelationsEnum = ResultRelationsEnum.fromValue(classAttribute);
+
+                switch (resultRelationsEnum) {
+                    case HAS_AUTHOR:
+                        hasAuthor = true;
+                        author = new RelatedPerson();
+                        break;
+                    default:
+                        hasAuthor = false;
+                        break;
                 }
+                break;
             }
-            publication.setPublicationType(publicationTypeEnum);
-        }
-        /*
-            collectedfrom
-         */
-        else if (qName.equalsIgnoreCase("collectedfrom")) {
-            String id = attributes.getValue("id");
-            publicationIdentifier = new PublicationIdentifier();
-            publicationIdentifier.setValue(id);
-        }
-        /*
-            PublicationIdentifierSchemeName & schemeURI (if necessary)
-         */
-        else if (qName.equalsIgnoreCase("pid")) {
-            String classname = attributes.getValue("classname");
-            PublicationIdentifierSchemeNameEnum publicationIdentifierSchemeNameEnum;
-            try {
-                publicationIdentifierSchemeNameEnum = PublicationIdentifierSchemeNameEnum.fromValue(classname);
-            } catch (IllegalArgumentException ex) {
-                publicationIdentifierSchemeNameEnum = PublicationIdentifierSchemeNameEnum.OTHER;
+            /*
+                PublicationType
+             */
+            case "instancetype": {
+                String classname = attributes.getValue("classname");
+                PublicationTypeEnum publicationTypeEnum;
+                try {
+                    publicationTypeEnum = PublicationTypeEnum.fromValue(classname);
+                } catch (IllegalArgumentException ex) {
+                    publicationTypeEnum = PublicationTypeEnum.OTHER;
+                    String schemeid = attributes.getValue("schemeid");
+                    if (!schemeid.isEmpty())
+                        publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/" + schemeid + "/" + classname);
+                    else {
+                        publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/dnet:publication_resource/UNKNOWN");
+                    }
+                }
+                publication.setPublicationType(publicationTypeEnum);
+                break;
             }
-            publicationIdentifier.setPublicationIdentifierSchemeName(publicationIdentifierSchemeNameEnum);
+            /*
+                collectedfrom
+             */
+            case "collectedfrom": {
+                String id = attributes.getValue("id");
+                publicationIdentifier = new PublicationIdentifier();
+                publicationIdentifier.setValue(id);
+                break;
+            }
+            /*
+                PublicationIdentifierSchemeName & schemeURI (if necessary)
+             */
+            case "pid": {
+                String classname = attributes.getValue("classname");
+                PublicationIdentifierSchemeNameEnum publicationIdentifierSchemeNameEnum;
+                try {
+                    publicationIdentifierSchemeNameEnum = PublicationIdentifierSchemeNameEnum.fromValue(classname);
+                } catch (IllegalArgumentException ex) {
+                    publicationIdentifierSchemeNameEnum = PublicationIdentifierSchemeNameEnum.OTHER;
+                }
+                publicationIdentifier.setPublicationIdentifierSchemeName(publicationIdentifierSchemeNameEnum);
 
-            if (publicationIdentifierSchemeNameEnum != PublicationIdentifierSchemeNameEnum.OTHER) {
-                publicationIdentifier.setSchemeURI("");
-            } else {
-                String schemeid = attributes.getValue("schemeid");
-                if (!schemeid.isEmpty())
-                    publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/" + schemeid + "/" + classname);
-                else {
-                    publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/dnet:pid_types/UNKNOWN");
+                if (publicationIdentifierSchemeNameEnum != PublicationIdentifierSchemeNameEnum.OTHER) {
+                    publicationIdentifier.setSchemeURI("");
+                } else {
+                    String schemeid = attributes.getValue("schemeid");
+                    if (!schemeid.isEmpty())
+                        publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/" + schemeid + "/" + classname);
+                    else {
+                        publicationIdentifier.setSchemeURI("http://api.openaire.eu/vocabularies/dnet:pid_types/UNKNOWN");
+                    }
                 }
-            }
 
-            publication.getIdentifiers().add(publicationIdentifier);
+                publication.getIdentifiers().add(publicationIdentifier);
 
-        }
-        /*
-            DocumentLanguage
-            OpenAire is using different language coding from OMTD
-         */
-        else if (qName.equalsIgnoreCase("language")) {
-            String classid = attributes.getValue("classid");
-            String classname = attributes.getValue("classname");
-
-
-            Language language = new Language();
-            if (LanguageConverter.getInstance().getLangNameToCode().containsKey(classname)) {
-                classid = LanguageConverter.getInstance().getLangNameToCode().get(classname);
+                break;
             }
-            else {
-                if (LanguageConverter.getInstance().getLangCodeToName().containsKey(classid)) {
-                    classname = LanguageConverter.getInstance().getLangCodeToName().get(classid);
+            /*
+                DocumentLanguage
+                OpenAire is using different language coding from OMTD
+             */
+            case "language": {
+                String classid = attributes.getValue("classid");
+                String classname = attributes.getValue("classname");
+
+
+                Language language = new Language();
+                LanguageConverter languageConverter = LanguageConverter.getInstance();
+                String code = languageConverter.getCode(classname);
+                if (code != null) {
+                    classid = code;
+                } else {
+                    // the classid may be any ISO 639 code, which is replaced by the primary one of its language
+                    String name = languageConverter.getName(classid);
+                    if (name != null) {
+                        classname = name;
+                        classid = languageConverter.getCode(name);
+                    }
                 }
+
+                language.setLanguageTag(classname);
+                language.setLanguageId(classid);
+
+                publication.getDocumentLanguages().add(language);
+                break;
             }
+            /*
+                DocumentDistributionInfo (preparation for accessing the downloading URL)
+             */
+            case "webresource": {
+                documentDistributionInfo = new DocumentDistributionInfo();
+                break;
+            }
+            /*
+                Subjects and Keywords
+             */
+            case "subject": {
+                String classid = attributes.getValue("classid");
+                String schemeid = attributes.getValue("schemeid");
 
-            language.setLanguageTag(classname);
-            language.setLanguageId(classid);
+                if (classid.equalsIgnoreCase("keyword")) {
+                    hasKeyword = true;
+                } else if (schemeid.equalsIgnoreCase("dnet:subject_classification_typologies")) {
+                    hasSubject = true;
+                }
+                break;
+            }
+            /*
+                Abstract
+             */
+            case "description": {
+                hasAbstract = true;
+                break;
+            }
+            /*
+                Licence is still under investigation
+                As it looks like, licence is used within journals.
+                This is an element not yet processed
+             */
+            case "bestlicence": {
+                String classid = attributes.getValue("classid");
+                String classname = attributes.getValue("classname");
+                RightsInfo rightsInfo = new RightsInfo();
+                LicenceInfo licenceInfo = new LicenceInfo();
+                licenceInfo.setLicence(LicenceEnum.NON_STANDARD_LICENCE_TERMS);
+                licenceInfo.setNonStandardLicenceTermsURL(classid);
 
-            publication.getDocumentLanguages().add(language);
-        }
-        /*
-            DocumentDistributionInfo (preparation for accessing the downloading URL)
-         */
-        else if (qName.equalsIgnoreCase("webresource")) {
-            documentDistributionInfo = new DocumentDistributionInfo();
-        }
-        /*
-            Subjects and Keywords
-         */
-        else if (qName.equalsIgnoreCase("subject")) {
-            String classid = attributes.getValue("classid");
-            String schemeid = attributes.getValue("schemeid");
-
-            if (classid.equalsIgnoreCase("keyword")) {
-                hasKeyword = true;
-            } else if (schemeid.equalsIgnoreCase("dnet:subject_classification_typologies")) {
-                hasSubject = true;
+                rightsInfo.getLicenceInfos().add(licenceInfo);
+                documentDistributionInfo.getRightsInfo().add(rightsInfo);
+                break;
             }
         }
-        /*
-            Abstract
-         */
-        else if (qName.equalsIgnoreCase("description")) {
-            hasAbstract = true;
-        }
-        /*
-            Licence is still under investigation
-            As it looks like, licence is used within journals.
-            This is an element not yet processed
-         */
-        else if (qName.equalsIgnoreCase("bestlicence")) {
-            String classid = attributes.getValue("classid");
-            String classname = attributes.getValue("classname");
-            RightsInfo rightsInfo = new RightsInfo();
-            LicenceInfo licenceInfo = new LicenceInfo();
-            licenceInfo.setLicence(LicenceEnum.NON_STANDARD_LICENCE_TERMS);
-            licenceInfo.setNonStandardLicenceTermsURL(classid);
-
-            rightsInfo.getLicenceInfos().add(licenceInfo);
-            documentDistributionInfo.getRightsInfo().add(rightsInfo);
-        }
     }
 
     @Override
     public void endElement(String uri, String localName, String qName) throws SAXException {
-        /*
-            End of DocumentMetadataRecord element (end of current publication)
-            For the time being it prints the xml as a string
-         */
-        if (qName.equalsIgnoreCase("result")) {
-            StringWriter sw = new StringWriter();
-            try {
-                jaxbMarshaller.marshal(documentMetadataRecord, sw);
-                OMTDPublications.add(sw.toString());
-            } catch (JAXBException e) {
-                log.error("PublicationResultHandler.endElement@result", e);
-            }
+        if (skipping && !qName.equals("result")) {
+            return;
         }
-        /*
-            MetadataInfo
-         */
-        else if (qName.equalsIgnoreCase("dri:objIdentifier")) {
-            MetadataIdentifier metadataIdentifier = new MetadataIdentifier();
-            metadataIdentifier.setValue(value);
-            metadataHeaderInfo.setMetadataRecordIdentifier(metadataIdentifier);
 
+        try {
+            endMappedElement(qName);
+        } finally {
+            resetText();
         }
-        /*
-            MetadataCreationDate
-            End of dri:dateOfCollection element
-         */
-        else if (qName.equalsIgnoreCase("dri:dateOfCollection")) {
-            SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-            try {
-                java.util.Date date = simpleDateFormat.parse(value);
-                GregorianCalendar gregorianCalendar = new GregorianCalendar();
-                gregorianCalendar.setTime(date);
-                XMLGregorianCalendar xmlGregorianCalendar = DatatypeFactory.newInstance().newXMLGregorianCalendar(gregorianCalendar);
-                metadataHeaderInfo.setMetadataCreationDate(xmlGregorianCalendar);
-            } catch (ParseException | DatatypeConfigurationException e) {
-                e.printStackTrace();
+    }
+
+    private void endMappedElement(String qName) throws SAXException {
+        switch (qName) {
+            /*
+                End of DocumentMetadataRecord element (end of current publication)
+                The record is handed to the sink, which marshals it,
+                unless it is cached or has to be cached
+             */
+            case "result": {
+                try {
+                    if (cachedRecord != null) {
+                        sink.accept(cachedRecord);
+                    } else if (recordCache != null && objIdentifier != null && dateOfTransformation != null) {
+                        String record = marshal(documentMetadataRecord);
+                        recordCache.put(RecordCache.key(objIdentifier, dateOfTransformation), record);
+                        sink.accept(documentMetadataRecord, record);
+                    } else {
+                        sink.accept(documentMetadataRecord);
+                    }
+                } catch (JAXBException e) {
+                    // a record the sink cannot take must fail the parse, not be silently dropped
+                    throw new SAXException(e);
+                } finally {
+                    cachedRecord = null;
+                    skipping = false;
+                }
+                break;
             }
-        }
-        /*
-            MetadataLastDateUpdated
-            End of dri:dateOfTransformation element
-         */
-        else if(qName.equalsIgnoreCase("dri:dateOfTransformation")){
-            SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-            try {
-                java.util.Date date = simpleDateFormat.parse(value);
-                GregorianCalendar gregorianCalendar = new GregorianCalendar();
-                gregorianCalendar.setTime(date);
-                XMLGregorianCalendar xmlGregorianCalendar = DatatypeFactory.newInstance().newXMLGregorianCalendar(gregorianCalendar);
-                metadataHeaderInfo.setMetadataLastDateUpdated(xmlGregorianCalendar);
-            } catch (ParseException | DatatypeConfigurationException e) {
-                e.printStackTrace();
+            /*
+                MetadataInfo
+             */
+            case "dri:objIdentifier": {
+                MetadataIdentifier metadataIdentifier = new MetadataIdentifier();
+                metadataIdentifier.setValue(value());
+                metadataHeaderInfo.setMetadataRecordIdentifier(metadataIdentifier);
+
+                objIdentifier = value();
+                lookupCachedRecord();
+
+                break;
             }
-        }
-        /*
-            End of title element
-            Title elements can be found within a <rel> element.
-            Notice that OMTD title is the one NOT within a <rel> element.
-         */
-        else if (qName.equalsIgnoreCase("title")) {
-            // If title is within a <rel> element, hasRelation should be true, otherwise it is false
-            if (!hasRelation) {
-                title.setValue(value);
-                publication.getTitles().add(title);
+            /*
+                MetadataCreationDate
+                End of dri:dateOfCollection element
+             */
+            case "dri:dateOfCollection": {
+                XMLGregorianCalendar xmlGregorianCalendar = DateConverter.toXMLGregorianCalendar(value());
+                if (xmlGregorianCalendar != null) {
+                    metadataHeaderInfo.setMetadataCreationDate(xmlGregorianCalendar);
+                }
+                break;
             }
-        }
-        /*
-            PersonIdentifier
-            End of <to> of the <rel> element
-         */
-        else if (qName.equalsIgnoreCase("to")) {
-            if (hasAuthor) {
-                PersonIdentifier personIdentifier = new PersonIdentifier();
-                personIdentifier.setPersonIdentifierSchemeName(PersonIdentifierSchemeNameEnum.OTHER);
-                personIdentifier.setValue(value);
-                author.getPersonIdentifiers().add(personIdentifier);
+            /*
+                MetadataLastDateUpdated
+                End of dri:dateOfTransformation element
+             */
+            case "dri:dateOfTransformation": {
+                XMLGregorianCalendar xmlGregorianCalendar = DateConverter.toXMLGregorianCalendar(value());
+                if (xmlGregorianCalendar != null) {
+                    metadataHeaderInfo.setMetadataLastDateUpdated(xmlGregorianCalendar);
+                }
+
+                dateOfTransformation = value();
+                lookupCachedRecord();
+                break;
             }
-        }
-        /*
-            PersonName
-            End of fullname
-         */
-        else if (qName.equalsIgnoreCase("fullname")) {
-            PersonName personName = new PersonName();
-            personName.setValue(value);
-            author.getPersonNames().add(personName);
-        }
-        /*
-            Author
-            End of rel element
-         */
-        else if (qName.equalsIgnoreCase("rel")) {
-            hasRelation = false;
-            if (hasAuthor) {
-                hasAuthor = false;
-                publication.getAuthors().add(author);
+            /*
+                End of title element
+                Title elements can be found within a <rel> element.
+                Notice that OMTD title is the one NOT within a <rel> element.
+             */
+            case "title": {
+                // If title is within a <rel> element, hasRelation should be true, otherwise it is false
+                if (!hasRelation) {
+                    title.setValue(value());
+                    publication.getTitles().add(title);
+                }
+                break;
             }
-        }
-        /*
-            PublicationDate
-            End of dateofacceptance element
-         */
-        else if (qName.equalsIgnoreCase("dateofacceptance")) {
-            // In case dateofacceptance element is within a rel element, hasRelation should be true, otherwise it is false
-            if (!hasRelation) {
-                Date date = new Date();
-                String[] dateOfAcceptance = value.split("-");
-
-                switch (dateOfAcceptance.length) {
-                    case 1:
-                        if (!dateOfAcceptance[0].trim().isEmpty())
-                            date.setYear(Integer.valueOf(dateOfAcceptance[0].trim()));
-                        break;
-                    case 2:
-                        date.setYear(Integer.valueOf(dateOfAcceptance[0]));
-                        date.setMonth(Integer.valueOf(dateOfAcceptance[1]));
-                        break;
-                    case 3:
-                        date.setYear(Integer.valueOf(dateOfAcceptance[0]));
-                        date.setMonth(Integer.valueOf(dateOfAcceptance[1]));
-                        date.setDay(Integer.valueOf(dateOfAcceptance[2]));
-                        break;
-                    default:
-                        break;
+            /*
+                PersonIdentifier
+                End of <to> of the <rel> element
+             */
+            case "to": {
+                if (hasAuthor) {
+                    PersonIdentifier personIdentifier = new PersonIdentifier();
+                    personIdentifier.setPersonIdentifierSchemeName(PersonIdentifierSchemeNameEnum.OTHER);
+                    personIdentifier.setValue(value());
+                    author.getPersonIdentifiers().add(personIdentifier);
+                }
+                break;
+            }
+            /*
+                PersonName
+                End of fullname
+             */
+            case "fullname": {
+                PersonName personName = new PersonName();
+                personName.setValue(value());
+                author.getPersonNames().add(personName);
+                break;
+            }
+            /*
+                Author
+                End of rel element
+             */
+            case "rel": {
+                hasRelation = false;
+                if (hasAuthor) {
+                    hasAuthor = false;
+                    publication.getAuthors().add(author);
                 }
+                break;
+            }
+            /*
+                PublicationDate
+                End of dateofacceptance element
+             */
+            case "dateofacceptance": {
+                // In case dateofacceptance element is within a rel element, hasRelation should be true, otherwise it is false
+                if (!hasRelation) {
+                    Date date = DateConverter.toDate(value());
+                    if (date != null) {
+                        publication.setPublicationDate(date);
+                    }
+                }
+                break;
+            }
+            /*
+                Publisher
+                End of publisher element
+                publisher refers to original publisher (element publisher)
+                or to the collectedfrom publisher who actually gives the publicationIdentifier?
+             */
+            case "publisher": {
+                if (!hasRelation && !value().trim().isEmpty()) {
+                    ActorInfo actorInfo = new ActorInfo();
+                    RelatedOrganization relatedOrganization = new RelatedOrganization();
+                    OrganizationName organizationName = new OrganizationName();
+                    organizationName.setValue(value().trim());
 
-                publication.setPublicationDate(date);
+                    relatedOrganization.getOrganizationNames().add(organizationName);
+                    actorInfo.setRelatedOrganization(relatedOrganization);
+                    publication.setPublisher(actorInfo);
+                }
+                break;
             }
-        }
-        /*
-            Publisher
-            End of publisher element
-            publisher refers to original publisher (element publisher)
-            or to the collectedfrom publisher who actually gives the publicationIdentifier?
-         */
-        else if (qName.equalsIgnoreCase("publisher")) {
-            if (!hasRelation && !value.trim().isEmpty()) {
-                ActorInfo actorInfo = new ActorInfo();
-                RelatedOrganization relatedOrganization = new RelatedOrganization();
-                OrganizationName organizationName = new OrganizationName();
-                organizationName.setValue(value.trim());
-
-                relatedOrganization.getOrganizationNames().add(organizationName);
-                actorInfo.setRelatedOrganization(relatedOrganization);
-                publication.setPublisher(actorInfo);
+            /*
+                DownloadURL
+                End of url element
+             */
+            case "url": {
+                if (!value().trim().isEmpty()) {
+                    documentDistributionInfo.getDistributionMediums().add(DistributionMediumEnum.DOWNLOADABLE);
+                    documentDistributionInfo.getDownloadURLs().add(value());
+                }
+                break;
             }
-        }
-        /*
-            DownloadURL
-            End of url element
-         */
-        else if (qName.equalsIgnoreCase("url")) {
-            if (!value.trim().isEmpty()) {
-                documentDistributionInfo.getDistributionMediums().add(DistributionMediumEnum.DOWNLOADABLE);
-                documentDistributionInfo.getDownloadURLs().add(value);
+            /*
+                DistributionMedium
+                End of webresource element
+             */
+            case "webresource": {
+                // just in case there is none download url
+                if (documentDistributionInfo.getDownloadURLs().size() < 1)
+                    documentDistributionInfo.getDistributionMediums().add(DistributionMediumEnum.OTHER);
+                publication.getDistributions().add(documentDistributionInfo);
+                break;
             }
-        }
-        /*
-            DistributionMedium
-            End of webresource element
-         */
-        else if (qName.equalsIgnoreCase("webresource")) {
-            // just in case there is none download url
-            if (documentDistributionInfo.getDownloadURLs().size() < 1)
-                documentDistributionInfo.getDistributionMediums().add(DistributionMediumEnum.OTHER);
-            publication.getDistributions().add(documentDistributionInfo);
-        }
-        /*
-            Subjects and Keywords
-            End of subject element
-         */
-        else if (qName.equalsIgnoreCase("subject")) {
-            if (hasKeyword) {
-                publication.getKeywords().add(value);
-                hasKeyword = false;
-            } else if (hasSubject) {
-                Subject subject = new Subject();
-                subject.setValue(value);
-                subject.setClassificationSchemeName(ClassificationSchemeName.OTHER);
-                publication.getSubjects().add(subject);
-                hasSubject = false;
+            /*
+                Subjects and Keywords
+                End of subject element
+             */
+            case "subject": {
+                if (hasKeyword) {
+                    publication.getKeywords().add(value());
+                    hasKeyword = false;
+                } else if (hasSubject) {
+                    Subject subject = new Subject();
+                    subject.setValue(value());
+                    subject.setClassificationSchemeName(ClassificationSchemeName.OTHER);
+                    publication.getSubjects().add(subject);
+                    hasSubject = false;
+                }
+                break;
             }
-        }
-        /*
-            Abstract
-            End of description
-         */
-        else if (qName.equalsIgnoreCase("description")) {
-            if (hasAbstract) {
-                Abstract documentAbstract = new Abstract();
-                documentAbstract.setValue(description);
-                publication.getAbstracts().add(documentAbstract);
-                hasAbstract = false;
-                description = "";
+            /*
+                Abstract
+                End of description
+             */
+            case "description": {
+                if (hasAbstract) {
+                    Abstract documentAbstract = new Abstract();
+                    documentAbstract.setValue(description.toString());
+                    publication.getAbstracts().add(documentAbstract);
+                    hasAbstract = false;
+                    description.setLength(0);
+                }
+                break;
             }
-        }
-        /*
-            Contributor
-            End of contributor
-
-            Contributors are either RelatedPersons or RelatedOrganizations.
-            It is not clear when the first or the latter is used, so I am using the second as default.
-         */
-        else if (qName.equalsIgnoreCase("contributor")) {
-            if (!value.trim().isEmpty()) {
-                Contributor contributor = new Contributor();
-                RelatedOrganization relatedOrganization = new RelatedOrganization();
-                OrganizationName organizationName = new OrganizationName();
-                organizationName.setValue(value);
-
-                relatedOrganization.getOrganizationNames().add(organizationName);
-                contributor.setRelatedOrganization(relatedOrganization);
-
-                publication.getContributors().add(contributor);
+            /*
+                Contributor
+                End of contributor
+
+                Contributors are either RelatedPersons or RelatedOrganizations.
+                It is not clear when the first or the latter is used, so I am using the second as default.
+             */
+            case "contributor": {
+                if (!value().trim().isEmpty()) {
+                    Contributor contributor = new Contributor();
+                    RelatedOrganization relatedOrganization = new RelatedOrganization();
+                    OrganizationName organizationName = new OrganizationName();
+                    organizationName.setValue(value());
+
+                    relatedOrganization.getOrganizationNames().add(organizationName);
+                    contributor.setRelatedOrganization(relatedOrganization);
+
+                    publication.getContributors().add(contributor);
+                }
+                break;
             }
         }
     }
 
     @Override
     public void characters(char[] ch, int start, int length) throws SAXException {
-        value = new String(ch, start, length);
+        if (skipping) {
+            return;
+        }
+
+        text.append(ch, start, length);
 
         // Because in some abstracts (description elements) are used notations with tagged elements
         // description is produced by concatenating each value until hasAbstract is false.
         if (hasAbstract) {
-            description += value;
+            description.append(ch, start, length);
+        }
+    }
+
+    private String value() {
+        if (value == null) {
+            value = text.toString();
         }
+        return value;
     }
 
+    private void resetText() {
+        text.setLength(0);
+        value = null;
+    }
+
+    /*
+        Once both the identifier and the date of transformation of the record are known,
+        a cached conversion makes the rest of the record irrelevant
+     */
+    private void lookupCachedRecord() {
+        if (recordCache != null && objIdentifier != null && dateOfTransformation != null) {
+            cachedRecord = recordCache.get(RecordCache.key(objIdentifier, dateOfTransformation));
+            skipping = cachedRecord != null;
+        }
+    }
+
+    private static String marshal(DocumentMetadataRecord record) throws JAXBException {
+        StringWriter sw = new StringWriter();
+        Marshaller jaxbMarshaller = OMTDMarshallers.acquire(true);
+        try {
+            jaxbMarshaller.marshal(record, sw);
+        } finally {
+            OMTDMarshallers.release(jaxbMarshaller);
+        }
+        return sw.toString();
+    }
+
+    /**
+     * @return the raw dri:dateOfTransformation of the last result parsed, null if it had none
+     */
+    public String getDateOfTransformation() {
+        return dateOfTransformation;
+    }
+
+    public RecordCache getRecordCache() {
+        return recordCache;
+    }
+
+    /**
+     * @param recordCache cache of converted records, null to convert every record
+     */
+    public void setRecordCache(RecordCache recordCache) {
+        this.recordCache = recordCache;
+    }
+
+    public PublicationSink getSink() {
+        return sink;
+    }
+
+    public void setSink(PublicationSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * @return the publications collected by a PublicationListSink, or an empty list for other sinks
+     */
     public List<String> getOMTDPublications() {
-        return OMTDPublications;
+        if (sink instanceof PublicationListSink) {
+            return ((PublicationListSink) sink).getPublications();
+        }
+        return Collections.emptyList();
+    }
+
+    public void clearOMTDPublications() {
+        if (sink instanceof PublicationListSink) {
+            ((PublicationListSink) sink).getPublications().clear();
+        }
     }
 }
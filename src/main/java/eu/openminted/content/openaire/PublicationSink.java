@@ -0,0 +1,31 @@
+package eu.openminted.content.openaire;
+
+import eu.openminted.registry.domain.DocumentMetadataRecord;
+
+import javax.xml.bind.JAXBException;
+
+/**
+ * Receives the records converted by a PublicationResultHandler, one at a time
+ */
+public interface PublicationSink {
+
+    void accept(DocumentMetadataRecord record) throws JAXBException;
+
+    /**
+     * Receives a record that is already marshalled (for instance from a RecordCache)
+     *
+     * @param record the OMTD xml of the record, without xml declaration
+     */
+    void accept(String record) throws JAXBException;
+
+    /**
+     * Receives a record that has just been converted and marshalled (for a RecordCache).
+     * Sinks writing into a document marshal the record again, which is cheaper than parsing the xml back;
+     * sinks collecting strings take the xml as is.
+     *
+     * @param xml the OMTD xml of the record, without xml declaration
+     */
+    default void accept(DocumentMetadataRecord record, String xml) throws JAXBException {
+        accept(record);
+    }
+}
@@ -0,0 +1,214 @@
+package eu.openminted.content.openaire;
+
+import org.apache.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of converted records, keyed by the OpenAIRE object identifier and the date of transformation,
+ * which together identify a version of a record. It maps the key to the marshalled OMTD xml
+ * (without xml declaration), so records that did not change are not converted again.
+ * <p>
+ * Records are kept in a bounded in-memory LRU map and, optionally, in a local directory
+ * that survives restarts. Files older than the maximum age are ignored and deleted, when read
+ * and by purge(). Keys include the version of the conversion and the output format of the
+ * marshallers, so a cache written by another version or format is never served.
+ * <p>
+ * The default cache is configured through the system properties
+ * <code>openaire.recordCache.maxEntries</code> (0, the default, disables it),
+ * <code>openaire.recordCache.directory</code> and <code>openaire.recordCache.maxAgeDays</code> (30 by default);
+ * its directory is purged in the background when it is created.
+ */
+public class RecordCache {
+    private static Logger log = Logger.getLogger(RecordCache.class.getName());
+
+    /*
+        Version of the conversion to OMTD, to be increased whenever it produces different xml
+     */
+    static final int formatVersion = 1;
+
+    private static final RecordCache defaultCache = createDefault();
+
+    private final Map<String, String> records;
+    private final Path directory;
+    private final long maxAgeMillis;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param directory directory of the disk store, or null to keep records in memory only
+     */
+    public RecordCache(int maxEntries, Path directory) {
+        this(maxEntries, directory, 30, TimeUnit.DAYS);
+    }
+
+    /**
+     * @param directory directory of the disk store, or null to keep records in memory only
+     * @param maxAge    age after which the files of the disk store are discarded
+     */
+    public RecordCache(final int maxEntries, Path directory, long maxAge, TimeUnit unit) {
+        this.records = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.directory = directory;
+        this.maxAgeMillis = unit.toMillis(maxAge);
+    }
+
+    /**
+     * @return the cache configured by the system properties, or null when it is disabled
+     */
+    public static RecordCache getDefault() {
+        return defaultCache;
+    }
+
+    public static String key(String objIdentifier, String dateOfTransformation) {
+        return objIdentifier.trim() + "@" + dateOfTransformation.trim()
+                + "#" + formatVersion + (OMTDMarshallers.isFormattedOutput() ? "f" : "c");
+    }
+
+    public String get(String key) {
+        String record;
+        synchronized (this) {
+            record = records.get(key);
+        }
+
+        if (record == null && directory != null) {
+            Path file = file(key);
+            if (Files.exists(file) && !expire(file)) {
+                try {
+                    record = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                    synchronized (this) {
+                        records.put(key, record);
+                    }
+                } catch (IOException e) {
+                    log.warn("Cannot read cached record " + key + ": " + e.getMessage());
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (record == null) {
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        return record;
+    }
+
+    public void put(String key, String record) {
+        synchronized (this) {
+            records.put(key, record);
+        }
+
+        if (directory != null) {
+            Path file = file(key);
+            try {
+                Files.createDirectories(file.getParent());
+                Path temporary = Files.createTempFile(file.getParent(), "record", ".tmp");
+                Files.write(temporary, record.getBytes(StandardCharsets.UTF_8));
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Cannot store cached record " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deletes the files of the disk store older than the maximum age
+     *
+     * @return the number of files deleted
+     */
+    public long purge() {
+        if (directory == null || !Files.isDirectory(directory)) {
+            return 0;
+        }
+
+        long deleted = 0;
+        try (DirectoryStream<Path> subdirectories = Files.newDirectoryStream(directory)) {
+            for (Path subdirectory : subdirectories) {
+                if (!Files.isDirectory(subdirectory)) {
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(subdirectory)) {
+                    for (Path file : files) {
+                        if (expire(file)) {
+                            deleted++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot purge the record cache " + directory + ": " + e.getMessage());
+        }
+        log.info("Purged " + deleted + " expired records from " + directory);
+        return deleted;
+    }
+
+    /*
+        Deletes the file if it is older than the maximum age
+     */
+    private boolean expire(Path file) {
+        try {
+            if (System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() <= maxAgeMillis) {
+                return false;
+            }
+            Files.deleteIfExists(file);
+            return true;
+        } catch (IOException e) {
+            log.debug("Cannot expire cached record " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /*
+        Records are stored under the sha-1 of their key, spread over 256 sub-directories
+     */
+    private Path file(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : digest) {
+                name.append(String.format("%02x", b));
+            }
+            return directory.resolve(name.substring(0, 2)).resolve(name.append(".xml").toString());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RecordCache createDefault() {
+        int maxEntries = Integer.getInteger("openaire.recordCache.maxEntries", 0);
+        if (maxEntries <= 0) {
+            return null;
+        }
+        String directory = System.getProperty("openaire.recordCache.directory");
+        final RecordCache recordCache = new RecordCache(maxEntries, directory == null ? null : Paths.get(directory),
+                Long.getLong("openaire.recordCache.maxAgeDays", 30), TimeUnit.DAYS);
+        if (directory != null) {
+            Thread purge = new Thread(recordCache::purge, "record-cache-purge");
+            purge.setDaemon(true);
+            purge.start();
+        }
+        return recordCache;
+    }
+}
@@ -3,6 +3,9 @@ package eu.openminted.content.openaire;
 import javax.xml.bind.annotation.XmlEnum;
 import javax.xml.bind.annotation.XmlEnumValue;
 import javax.xml.bind.annotation.XmlType;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 @XmlType(name = "class")
 @XmlEnum
@@ -70,7 +73,7 @@ public enum ResultRelationsEnum {
      */
     @XmlEnumValue("isRelatedTo")
     IS_RELATED_TO("isRelatedTo"),
-    @XmlEnumValue("isProducedBy")
+    @XmlEnumValue("isProvidedBy")
     IS_PROVIDED_BY("isProvidedBy"),
 
     @XmlEnumValue("provides")
@@ -78,6 +81,16 @@ public enum ResultRelationsEnum {
 
     @XmlEnumValue("other")
     OTHER("other");
+    // keyed by both the exact and the lower case value, so that the common spelling is found without a copy
+    private static final Map<String, ResultRelationsEnum> byValue = new HashMap<>();
+
+    static {
+        for (ResultRelationsEnum c : values()) {
+            byValue.put(c.value, c);
+            byValue.put(c.value.toLowerCase(Locale.ROOT), c);
+        }
+    }
+
     private final String value;
 
     ResultRelationsEnum(String v) {
@@ -88,13 +101,20 @@ public enum ResultRelationsEnum {
         return value;
     }
 
+    /**
+     * Looks up the relation of a class attribute, ignoring case.
+     *
+     * @return the relation, or OTHER when the class is missing or unknown
+     */
     public static ResultRelationsEnum fromValue(String v) {
-        for (ResultRelationsEnum c: ResultRelationsEnum.values()) {
-            if (c.value.equalsIgnoreCase(v)) {
-                return c;
-            }
+        if (v == null) {
+            return OTHER;
+        }
+        ResultRelationsEnum c = byValue.get(v);
+        if (c == null) {
+            c = byValue.get(v.toLowerCase(Locale.ROOT));
         }
-        throw new IllegalArgumentException(v);
+        return c == null ? OTHER : c;
     }
 }
 
@@ -0,0 +1,151 @@
+package eu.openminted.content.openaire;
+
+import eu.openminted.registry.domain.DocumentMetadataRecord;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.io.StringReader;
+
+/**
+ * Marshals the records straight into a single xml document, wrapped in an
+ * <code>OMTDPublications</code> element, without building intermediate strings.
+ * The document is completed by close().
+ */
+public class XmlStreamPublicationSink implements PublicationSink, AutoCloseable {
+    private static final XMLOutputFactory factory = XMLOutputFactory.newFactory();
+    private static final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+
+    private final XMLStreamWriter writer;
+    private final boolean ownsWriter;
+    private final Marshaller jaxbMarshaller;
+    private boolean started = false;
+
+    public XmlStreamPublicationSink(OutputStream outputStream) throws XMLStreamException, JAXBException {
+        this(factory.createXMLStreamWriter(outputStream, "UTF-8"), true);
+        try {
+            writer.writeStartDocument("UTF-8", "1.0");
+        } catch (XMLStreamException e) {
+            // close() will never be called on a sink that failed to construct
+            OMTDMarshallers.release(jaxbMarshaller);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the records into a writer positioned where the wrapping element should start.
+     * The writer itself is neither ended nor closed by close().
+     */
+    public XmlStreamPublicationSink(XMLStreamWriter writer) throws XMLStreamException, JAXBException {
+        this(writer, false);
+    }
+
+    private XmlStreamPublicationSink(XMLStreamWriter writer, boolean ownsWriter) throws XMLStreamException, JAXBException {
+        this.writer = writer;
+        this.ownsWriter = ownsWriter;
+        this.jaxbMarshaller = OMTDMarshallers.acquire(true);
+    }
+
+    @Override
+    public void accept(DocumentMetadataRecord record) throws JAXBException {
+        try {
+            start();
+        } catch (XMLStreamException e) {
+            throw new JAXBException(e);
+        }
+        jaxbMarshaller.marshal(record, writer);
+    }
+
+    /**
+     * Copies the events of the marshalled record into the writer, so that the document stays well-formed
+     */
+    @Override
+    public void accept(String record) throws JAXBException {
+        try {
+            start();
+            XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(record));
+            try {
+                copy(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new JAXBException(e);
+        }
+    }
+
+    private void copy(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    String prefix = reader.getPrefix();
+                    String namespace = reader.getNamespaceURI();
+                    writer.writeStartElement(prefix == null ? "" : prefix, reader.getLocalName(),
+                            namespace == null ? "" : namespace);
+                    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                        String namespacePrefix = reader.getNamespacePrefix(i);
+                        if (namespacePrefix == null || namespacePrefix.isEmpty()) {
+                            writer.writeDefaultNamespace(reader.getNamespaceURI(i));
+                        } else {
+                            writer.writeNamespace(namespacePrefix, reader.getNamespaceURI(i));
+                        }
+                    }
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        String attributePrefix = reader.getAttributePrefix(i);
+                        String attributeNamespace = reader.getAttributeNamespace(i);
+                        writer.writeAttribute(attributePrefix == null ? "" : attributePrefix,
+                                attributeNamespace == null ? "" : attributeNamespace,
+                                reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                    }
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    writer.writeEndElement();
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    writer.writeCharacters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    break;
+                case XMLStreamConstants.CDATA:
+                    writer.writeCData(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void start() throws XMLStreamException {
+        if (!started) {
+            started = true;
+            writer.writeStartElement("OMTDPublications");
+        }
+    }
+
+    public void flush() throws XMLStreamException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        try {
+            start();
+            writer.writeEndElement();
+            if (ownsWriter) {
+                writer.writeEndDocument();
+            }
+            writer.flush();
+            if (ownsWriter) {
+                // does not close the underlying stream
+                writer.close();
+            }
+        } finally {
+            OMTDMarshallers.release(jaxbMarshaller);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package eu.openminted.content.connector;
+
+import eu.openminted.content.openaire.PublicationListSink;
+import eu.openminted.registry.domain.DocumentMetadataRecord;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BatchLookupTest {
+
+    /*
+        Serves lookups from an in-memory index of records by OpenAIRE identifier, without solr
+     */
+    private static class StubClient extends OpenAireSolrClient {
+        private final Map<String, List<String>> index = new HashMap<>();
+        private int requests = 0;
+
+        StubClient() {
+            super("localhost:0");
+        }
+
+        void add(String id, String title) {
+            index.computeIfAbsent(id, key -> new ArrayList<>()).add(ParserTest.result
+                    .replace("od______2806::3596cc1b1e96409b1677a0efe085912d", id)
+                    .replace("A title", title));
+        }
+
+        @Override
+        public synchronized QueryResponse lookup(String field, Collection<String> values, int start, int rows) {
+            requests++;
+            List<SolrDocument> matches = new ArrayList<>();
+            for (String value : values) {
+                for (String record : index.getOrDefault(value, Collections.emptyList())) {
+                    SolrDocument document = new SolrDocument();
+                    document.addField(resultField, record);
+                    document.addField(objIdentifierField, value);
+                    matches.add(document);
+                }
+            }
+
+            SolrDocumentList page = new SolrDocumentList();
+            page.setNumFound(matches.size());
+            page.setStart(start);
+            page.addAll(matches.subList(Math.min(start, matches.size()), Math.min(start + rows, matches.size())));
+
+            NamedList<Object> response = new NamedList<>();
+            response.add("response", page);
+            QueryResponse queryResponse = new QueryResponse();
+            queryResponse.setResponse(response);
+            return queryResponse;
+        }
+    }
+
+    @Test
+    public void orderAndMissing() throws Exception {
+        StubClient client = new StubClient();
+        client.add("a", "First of a");
+        client.add("b", "First of b");
+        client.add("b", "Second of b");
+        client.add("b", "Third of b");
+
+        PublicationListSink sink = new PublicationListSink(true);
+        List<String> missing = new BatchLookup(client, 2, 2).fetch(Arrays.asList("b", "missing", " a ", "b"), sink);
+
+        assertEquals(Collections.singletonList("missing"), missing);
+        List<String> titles = new ArrayList<>();
+        for (String publication : sink.getPublications()) {
+            for (String title : Arrays.asList("First of a", "First of b", "Second of b", "Third of b")) {
+                if (publication.contains(title)) {
+                    titles.add(title);
+                }
+            }
+        }
+        assertEquals(Arrays.asList("First of b", "Second of b", "Third of b", "First of a",
+                "First of b", "Second of b", "Third of b"), titles);
+        // the three records of b do not fit in the two rows of the first chunk
+        assertTrue(client.requests > 2);
+    }
+
+    @Test
+    public void records() throws Exception {
+        StubClient client = new StubClient();
+        client.add("a", "First of a");
+        client.add("b", "First of b");
+        client.add("b", "Second of b");
+
+        Map<String, List<DocumentMetadataRecord>> records =
+                new BatchLookup(client, 1, 2).fetchRecords(Arrays.asList("b", "missing", "a", "b"));
+
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<>(records.keySet()));
+        assertEquals(2, records.get("b").size());
+        assertEquals(1, records.get("a").size());
+    }
+}
@@ -0,0 +1,47 @@
+package eu.openminted.content.connector;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CursorCheckpointsTest {
+    @Test
+    public void floor() throws Exception {
+        CursorCheckpoints checkpoints = new CursorCheckpoints(100, 10, 1, TimeUnit.MINUTES);
+        checkpoints.put("q", 100, "AoE100", 1000);
+        checkpoints.put("q", 150, "AoE150", 1000);
+        checkpoints.put("q", 200, "AoE200", 1000);
+
+        CursorCheckpoints.Checkpoint checkpoint = checkpoints.floor("q", 199);
+        assertEquals(100, checkpoint.getOffset());
+        assertEquals("AoE100", checkpoint.getCursorMark());
+        assertTrue(checkpoint.isValid(1000));
+        assertFalse(checkpoint.isValid(1001));
+        assertSame(CursorCheckpoints.start, checkpoints.floor("q", 99));
+        assertSame(CursorCheckpoints.start, checkpoints.floor("other", 500));
+    }
+
+    @Test
+    public void changedResultSet() throws Exception {
+        CursorCheckpoints checkpoints = new CursorCheckpoints(100, 10, 1, TimeUnit.MINUTES);
+        checkpoints.put("q", 100, "AoE100", 1000);
+        checkpoints.put("q", 300, "AoE300", 1001);
+
+        assertSame(CursorCheckpoints.start, checkpoints.floor("q", 200));
+        assertEquals(300, checkpoints.floor("q", 300).getOffset());
+    }
+
+    @Test
+    public void expiry() throws Exception {
+        CursorCheckpoints checkpoints = new CursorCheckpoints(100, 10, 0, TimeUnit.MILLISECONDS);
+        checkpoints.put("q", 100, "AoE100", 1000);
+        Thread.sleep(1);
+
+        assertSame(CursorCheckpoints.start, checkpoints.floor("q", 100));
+    }
+}
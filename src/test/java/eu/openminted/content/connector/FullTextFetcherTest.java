@@ -0,0 +1,222 @@
+package eu.openminted.content.connector;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FullTextFetcherTest {
+    private static final byte[] first = "%PDF first document".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] second = "%PDF second document, served in two parts".getBytes(StandardCharsets.US_ASCII);
+
+    private HttpServer server;
+    private ExecutorService handlers;
+    private String base;
+    private final AtomicInteger rangeRequests = new AtomicInteger();
+    private final AtomicInteger downloading = new AtomicInteger();
+    private final AtomicInteger maxDownloading = new AtomicInteger();
+
+    @Before
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/first.pdf", exchange -> send(exchange, 200, first, 0, first.length));
+        server.createContext("/missing.pdf", exchange -> send(exchange, 404, new byte[0], 0, 0));
+        server.createContext("/broken.pdf", exchange -> {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range == null) {
+                truncate(exchange, second);
+                return;
+            }
+            rangeRequests.incrementAndGet();
+            int start = Integer.parseInt(range.substring("bytes=".length(), range.indexOf('-')));
+            exchange.getResponseHeaders().set("Content-Range",
+                    "bytes " + start + "-" + (second.length - 1) + "/" + second.length);
+            send(exchange, 206, second, start, second.length - start);
+        });
+        server.createContext("/truncated.pdf", exchange -> {
+            if (exchange.getRequestHeaders().getFirst("Range") != null) {
+                send(exchange, 503, new byte[0], 0, 0);
+                return;
+            }
+            truncate(exchange, second);
+        });
+        server.createContext("/changing.pdf", exchange -> {
+            String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+            if (ifRange == null) {
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                truncate(exchange, second);
+                return;
+            }
+            // If-Range "v1" does not match the new version, so the whole new version is sent
+            exchange.getResponseHeaders().set("ETag", "\"v2\"");
+            send(exchange, 200, first, 0, first.length);
+        });
+        server.createContext("/slow/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            int document = Integer.parseInt(path.substring("/slow/".length(), path.indexOf(".pdf")));
+            maxDownloading.accumulateAndGet(downloading.incrementAndGet(), Math::max);
+            try {
+                // the later documents are served first
+                Thread.sleep(50L * (5 - document));
+                byte[] bytes = slow(document);
+                send(exchange, 200, bytes, 0, bytes.length);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                downloading.decrementAndGet();
+            }
+        });
+        handlers = Executors.newCachedThreadPool();
+        server.setExecutor(handlers);
+        server.start();
+        base = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stop() {
+        server.stop(0);
+        handlers.shutdownNow();
+    }
+
+    @Test
+    public void mirrorsAndResume() throws Exception {
+        FullTextFetcher fetcher = new FullTextFetcher(HttpClients.createDefault(), 2);
+        Map<String, List<String>> documents = new LinkedHashMap<>();
+        documents.put("od______2806::1", Arrays.asList(base + "/missing.pdf", base + "/first.pdf"));
+        documents.put("od______2806::2", Collections.singletonList(base + "/nowhere.pdf"));
+        documents.put("od______2806::3", Collections.singletonList(base + "/broken.pdf"));
+
+        Map<String, byte[]> entries = unzip(fetcher.open(documents));
+        assertEquals(Arrays.asList("od______2806::1", "od______2806::3"), new ArrayList<>(entries.keySet()));
+        assertArrayEquals(first, entries.get("od______2806::1"));
+        assertArrayEquals(second, entries.get("od______2806::3"));
+        assertEquals(1, rangeRequests.get());
+    }
+
+    @Test
+    public void noMirrorSwitchMidFile() throws Exception {
+        FullTextFetcher fetcher = new FullTextFetcher(HttpClients.createDefault(), 2);
+        Map<String, List<String>> documents = Collections.singletonMap("od______2806::1",
+                Arrays.asList(base + "/truncated.pdf", base + "/broken.pdf"));
+
+        try {
+            unzip(fetcher.open(documents));
+            fail("the second mirror was spliced into the first");
+        } catch (IOException e) {
+            assertEquals(0, rangeRequests.get());
+        }
+    }
+
+    @Test
+    public void changedDocument() throws Exception {
+        FullTextFetcher fetcher = new FullTextFetcher(HttpClients.createDefault(), 2);
+        Map<String, List<String>> documents = Collections.singletonMap("od______2806::1",
+                Collections.singletonList(base + "/changing.pdf"));
+
+        Set<Path> spools = spools();
+        try {
+            unzip(fetcher.open(documents));
+            fail("two versions of the document were spliced");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("changed"));
+        }
+        assertEquals(spools, spools());
+    }
+
+    @Test
+    public void concurrentDownloads() throws Exception {
+        // the default client opens at most 2 connections per host
+        FullTextFetcher fetcher = new FullTextFetcher(HttpClients.createDefault(), 2, 4);
+        Map<String, List<String>> documents = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            documents.put("od______2806::" + i, Collections.singletonList(base + "/slow/" + i + ".pdf"));
+        }
+
+        Set<Path> spools = spools();
+        Map<String, byte[]> entries = unzip(fetcher.open(documents));
+        assertEquals(new ArrayList<>(documents.keySet()), new ArrayList<>(entries.keySet()));
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(slow(i), entries.get("od______2806::" + i));
+        }
+        assertEquals(2, maxDownloading.get());
+        assertEquals(spools, spools());
+    }
+
+    private static byte[] slow(int document) {
+        return ("%PDF document " + document).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /*
+        The spool files in the temporary directory
+     */
+    private static Set<Path> spools() throws IOException {
+        Set<Path> spools = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                Paths.get(System.getProperty("java.io.tmpdir")), "fulltext*.tmp")) {
+            for (Path file : files) {
+                spools.add(file);
+            }
+        }
+        return spools;
+    }
+
+    private static Map<String, byte[]> unzip(InputStream inputStream) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(inputStream)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), IOUtils.toByteArray(zip));
+            }
+        }
+        return entries;
+    }
+
+    /*
+        Announces the whole document but drops the connection half way
+     */
+    private static void truncate(HttpExchange exchange, byte[] bytes) throws IOException {
+        exchange.sendResponseHeaders(200, bytes.length);
+        OutputStream body = exchange.getResponseBody();
+        body.write(bytes, 0, bytes.length / 2);
+        body.flush();
+        exchange.close();
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] bytes, int offset, int length)
+            throws IOException {
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes, offset, length);
+        }
+    }
+}
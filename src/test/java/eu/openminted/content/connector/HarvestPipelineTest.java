@@ -0,0 +1,207 @@
+package eu.openminted.content.connector;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HarvestPipelineTest {
+    private static final Pattern partitionFilter = Pattern.compile("\\{!hash workers=(\\d+) worker=(\\d+)}");
+    private static final Pattern title = Pattern.compile("Title (\\d+)<");
+
+    /*
+        Serves cursor pages from an in-memory list of records, without solr.
+        The cursorMark is the offset of the page, and the hash partitions are taken by position.
+     */
+    private static class StubClient extends OpenAireSolrClient {
+        private final List<String> records = new ArrayList<>();
+        private int failAtPage = -1;
+        private int pages = 0;
+
+        StubClient(int count) {
+            super("localhost:0");
+            for (int i = 0; i < count; i++) {
+                records.add(ParserTest.result
+                        .replace("od______2806::3596cc1b1e96409b1677a0efe085912d", "harvest::" + i)
+                        .replace("A title", "Title " + i));
+            }
+        }
+
+        @Override
+        public QueryResponse streamPage(SolrQuery solrQuery, String cursorMark, StreamingResponseCallback callback)
+                throws IOException {
+            synchronized (this) {
+                if (pages++ == failAtPage) {
+                    throw new IOException("page " + failAtPage + " is not available");
+                }
+            }
+
+            int partitions = 1;
+            int partition = 0;
+            for (String filterQuery : solrQuery.getFilterQueries() == null
+                    ? new String[0] : solrQuery.getFilterQueries()) {
+                Matcher matcher = partitionFilter.matcher(filterQuery);
+                if (matcher.matches()) {
+                    partitions = Integer.parseInt(matcher.group(1));
+                    partition = Integer.parseInt(matcher.group(2));
+                }
+            }
+
+            List<String> matches = new ArrayList<>();
+            for (int i = partition; i < records.size(); i += partitions) {
+                matches.add(records.get(i));
+            }
+
+            int start = cursorMark.equals(CursorMarkParams.CURSOR_MARK_START) ? 0 : Integer.parseInt(cursorMark);
+            int end = Math.min(start + solrQuery.getRows(), matches.size());
+            for (String record : matches.subList(start, end)) {
+                SolrDocument document = new SolrDocument();
+                document.addField(resultField, record);
+                callback.streamSolrDocument(document);
+            }
+
+            NamedList<Object> response = new NamedList<>();
+            response.add(CursorMarkParams.CURSOR_MARK_NEXT, end == start ? cursorMark : String.valueOf(end));
+            QueryResponse queryResponse = new QueryResponse();
+            queryResponse.setResponse(response);
+            return queryResponse;
+        }
+
+        synchronized int getPages() {
+            return pages;
+        }
+    }
+
+    private static HarvestPipeline pipeline(StubClient client, int partitions) {
+        return new HarvestPipeline(client, new Query(), 2, 2, 3, partitions).start();
+    }
+
+    private static List<Integer> titles(String document) {
+        List<Integer> titles = new ArrayList<>();
+        Matcher matcher = title.matcher(document);
+        while (matcher.find()) {
+            titles.add(Integer.parseInt(matcher.group(1)));
+        }
+        return titles;
+    }
+
+    @Test
+    public void order() throws Exception {
+        String document;
+        try (InputStream inputStream = new MetadataInputStream(pipeline(new StubClient(7), 1))) {
+            document = IOUtils.toString(inputStream, StandardCharsets.UTF_8);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, titles(document));
+        assertTrue(document.endsWith("</OMTDPublications>\n"));
+    }
+
+    @Test
+    public void partitions() throws Exception {
+        HarvestPipeline pipeline = pipeline(new StubClient(11), 3);
+        List<Integer> titles = new ArrayList<>();
+        for (List<String> publications = pipeline.take(); publications != null; publications = pipeline.take()) {
+            titles.addAll(titles(String.join("", publications)));
+        }
+
+        // every partition marks its end, and the results are only exhausted once all of them did
+        Collections.sort(titles);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, titles);
+        assertNull(pipeline.take());
+        assertEquals(11, pipeline.getStatistics().getRecordsEmitted());
+    }
+
+    @Test
+    public void readerFailure() throws Exception {
+        StubClient client = new StubClient(7);
+        client.failAtPage = 1;
+
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        InputStream inputStream = new MetadataInputStream(pipeline(client, 1));
+        try {
+            IOUtils.copy(inputStream, read);
+            fail("the harvest ended without the failed page");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("page 1"));
+        }
+
+        // the failure sticks: the first page is not served again and the document is never closed
+        try {
+            inputStream.read();
+            fail("the stream went on after a failure");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("page 1"));
+        }
+        String document = read.toString("UTF-8");
+        assertEquals(2, titles(document).size());
+        assertFalse(document.contains("</OMTDPublications>"));
+        inputStream.close();
+    }
+
+    @Test
+    public void workerFailure() throws Exception {
+        StubClient client = new StubClient(5);
+        client.records.set(3, "<result><header>");
+
+        HarvestPipeline pipeline = pipeline(client, 1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, pipeline.take().size());
+        }
+        try {
+            pipeline.take();
+            fail("a document that cannot be converted was skipped");
+        } catch (IOException e) {
+            // the conversions that follow the failed one are not served either
+            try {
+                pipeline.take();
+                fail("the pipeline went on after a failure");
+            } catch (IOException again) {
+                assertEquals(e, again);
+            }
+        }
+    }
+
+    @Test
+    public void shutdown() throws Exception {
+        StubClient client = new StubClient(200);
+        HarvestPipeline pipeline = pipeline(client, 2);
+        assertEquals(1, pipeline.take().size());
+        pipeline.close();
+
+        // the readers stop once the queue is full, since nobody takes from it anymore
+        Thread.sleep(200);
+        int pages = client.getPages();
+        Thread.sleep(200);
+        assertEquals(pages, client.getPages());
+        assertTrue(pages < 100);
+        assertNull(pipeline.take());
+    }
+}
@@ -2,6 +2,7 @@ package eu.openminted.content.connector;
 
 import eu.openminted.registry.domain.DocumentMetadataRecord;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.junit.Ignore;
@@ -9,11 +10,63 @@ import org.junit.Test;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Marshaller;
+import java.io.IOException;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 
 public class OpenAireConnectorTest {
+    @Test
+    public void cancelSearchAsync() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        // a solr request that only ends when the search is interrupted
+        OpenAireConnector openAireConnector = new OpenAireConnector() {
+            @Override
+            OpenAireSolrClient newClient() {
+                return new OpenAireSolrClient("localhost:0") {
+                    @Override
+                    public QueryResponse execute(Query query) throws IOException {
+                        started.countDown();
+                        try {
+                            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                        } catch (InterruptedException e) {
+                            interrupted.countDown();
+                            throw new IOException(e);
+                        }
+                        return new QueryResponse();
+                    }
+                };
+            }
+        };
+        openAireConnector.setSearchResultCache(null);
+
+        Query query = new Query();
+        query.setKeyword("*:*");
+        CompletableFuture<SearchResult> future = openAireConnector.searchAsync(query);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        assertTrue(future.cancel(true));
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+
+        // the failure of the interrupted request does not replace the cancellation
+        assertTrue(future.isCancelled());
+        try {
+            future.get();
+            fail("a cancelled search completed");
+        } catch (CancellationException e) {
+            // expected
+        }
+    }
+
     @Test
     @Ignore
     public void search() throws Exception {
@@ -41,8 +94,65 @@ public class OpenAireConnectorTest {
     @Ignore
     public void downloadFullText() throws Exception {
         OpenAireConnector openAireConnector = new OpenAireConnector();
-        String output = IOUtils.toString(openAireConnector.downloadFullText("od______2806::3596cc1b1e96409b1677a0efe085912d,od______2806::36a266a2402a9214e8dda6dd9e68a3eb"));
-        System.out.println(output);
+        try (ZipInputStream zip = new ZipInputStream(openAireConnector.downloadFullText("od______2806::3596cc1b1e96409b1677a0efe085912d,od______2806::36a266a2402a9214e8dda6dd9e68a3eb"))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                System.out.println(entry.getName() + ": " + IOUtils.toByteArray(zip).length + " bytes");
+            }
+        }
+    }
+
+    @Test
+    @Ignore
+    public void fetchMetadataByIds() throws Exception {
+        OpenAireConnector openAireConnector = new OpenAireConnector();
+        List<String> ids = Arrays.asList(
+                "od______2806::3596cc1b1e96409b1677a0efe085912d",
+                "od______2806::3695906b0423d41e074bb46a9bdf9cb9",
+                "od______2806::00000000000000000000000000000000",
+                "od______2806::36a266a2402a9214e8dda6dd9e68a3eb");
+
+        List<String> missing = openAireConnector.fetchMetadata(ids, System.out);
+        System.out.println();
+        System.out.println("missing: " + missing);
+    }
+
+    @Test
+    @Ignore
+    public void searchLatency() throws Exception {
+        OpenAireConnector openAireConnector = new OpenAireConnector();
+        // every iteration must go to solr, not to the cache filled by the first one
+        openAireConnector.setSearchResultCache(null);
+        openAireConnector.init();
+        Query query = new Query();
+        query.setKeyword("*:*");
+        query.setFrom(0);
+        query.setTo(10);
+
+        int iterations = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            openAireConnector.search(query);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("average search latency: " + (elapsed / iterations / 1000000) + " ms");
+        openAireConnector.destroy();
+    }
+
+    @Test
+    @Ignore
+    public void exportThroughput() throws Exception {
+        OpenAireConnector openAireConnector = new OpenAireConnector();
+        Query query = new Query();
+        query.setKeyword("*:*");
+
+        // both dumps convert on the calling thread and write through the same sink
+        long start = System.nanoTime();
+        openAireConnector.fetchMetadata(query, new NullOutputStream());
+        System.out.println("cursorMark dump: " + (System.nanoTime() - start) / 1000000 + " ms");
+
+        start = System.nanoTime();
+        openAireConnector.exportMetadata(query, new NullOutputStream());
+        System.out.println("/export dump: " + (System.nanoTime() - start) / 1000000 + " ms");
     }
 
     @Test
@@ -68,7 +178,8 @@ public class OpenAireConnectorTest {
         query.setFrom(10);
         query.setTo(15);
         List<String> facets = new ArrayList<>();
-        facets.add("__result");
+        facets.add("resultlanguagename");
+        facets.add("instancetypename");
         query.setFacets(facets);
         query.setKeyword("*:*");
         OpenAireConnector openAireConnector = new OpenAireConnector();
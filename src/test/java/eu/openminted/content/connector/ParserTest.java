@@ -0,0 +1,155 @@
+package eu.openminted.content.connector;
+
+import eu.openminted.content.openaire.RecordCache;
+import eu.openminted.content.openaire.XmlStreamPublicationSink;
+import org.apache.solr.common.SolrDocument;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.xml.sax.InputSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParserTest {
+    static final String result = "<result xmlns:dri=\"http://www.driver-repository.eu/namespace/dri\">" +
+            "<header>" +
+            "<dri:objIdentifier>od______2806::3596cc1b1e96409b1677a0efe085912d</dri:objIdentifier>" +
+            "<dri:dateOfCollection>2016-02-01T10:11:12</dri:dateOfCollection>" +
+            "<dri:dateOfTransformation>2016-03-01T10:11:12</dri:dateOfTransformation>" +
+            "</header>" +
+            "<metadata><oaf:entity xmlns:oaf=\"http://namespace.openaire.eu/oaf\"><oaf:result>" +
+            "<title classid=\"main title\" classname=\"main title\" schemeid=\"dnet:dataCite_title\">A title</title>" +
+            "<dateofacceptance>2015-06-01</dateofacceptance>" +
+            "<language classid=\"eng\" classname=\"English\" schemeid=\"dnet:languages\"/>" +
+            "<description>An <i>abstract</i> text</description>" +
+            "<collectedfrom name=\"Repository\" id=\"opendoar____::2806\"/>" +
+            "<pid classid=\"doi\" classname=\"doi\" schemeid=\"dnet:pid_types\">10.1000/1</pid>" +
+            "<rels><rel><to class=\"hasAuthor\" scheme=\"dnet:person_result_relations\" type=\"person\">person::1</to>" +
+            "<fullname>Doe, John</fullname></rel></rels>" +
+            "<children><instance id=\"opendoar____::2806\">" +
+            "<instancetype classid=\"0001\" classname=\"Article\" schemeid=\"dnet:publication_resource\"/>" +
+            "<webresource><url>http://example.org/a.pdf</url></webresource>" +
+            "</instance></children>" +
+            "</oaf:result></oaf:entity></metadata>" +
+            "</result>";
+
+    @Test
+    public void parse() throws Exception {
+        Parser parser = new Parser();
+        parser.parse(new InputSource(new StringReader(result)));
+
+        assertEquals(1, parser.getOMTDPublications().size());
+        String publication = parser.getOMTDPublications().get(0);
+        assertTrue(publication.contains("od______2806::3596cc1b1e96409b1677a0efe085912d"));
+        assertTrue(publication.contains("http://example.org/a.pdf"));
+        assertEquals("2016-03-01T10:11:12", parser.getDateOfTransformation());
+    }
+
+    @Test
+    public void splitCharacters() throws Exception {
+        Parser parser = new Parser();
+        parser.parse(new InputSource(new StringReader(result.replace(">A title<", ">A &amp; B &lt; C<"))));
+
+        assertTrue(parser.getOMTDPublications().get(0).contains("A &amp; B &lt; C"));
+    }
+
+    @Test
+    public void undeclaredPrefixes() throws Exception {
+        String undeclared = result
+                .replace(" xmlns:dri=\"http://www.driver-repository.eu/namespace/dri\"", "")
+                .replace(" xmlns:oaf=\"http://namespace.openaire.eu/oaf\"", "");
+
+        Parser parser = new Parser();
+        parser.parse(new InputSource(new StringReader(undeclared)));
+
+        assertEquals(1, parser.getOMTDPublications().size());
+        assertTrue(parser.getOMTDPublications().get(0).contains("od______2806::3596cc1b1e96409b1677a0efe085912d"));
+    }
+
+    @Test
+    public void stream() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (XmlStreamPublicationSink sink = new XmlStreamPublicationSink(outputStream)) {
+            Parser parser = new Parser(sink);
+            parser.parse(new InputSource(new StringReader(result)));
+            parser.parse(new InputSource(new StringReader(result)));
+        }
+
+        String document = outputStream.toString("UTF-8");
+        assertTrue(document.startsWith("<?xml"));
+        assertTrue(document.endsWith("</OMTDPublications>"));
+        assertEquals(document.indexOf("<?xml"), document.lastIndexOf("<?xml"));
+    }
+
+    @Test
+    public void recordCache() throws Exception {
+        RecordCache recordCache = new RecordCache(10, null);
+        Parser parser = new Parser();
+        parser.setRecordCache(recordCache);
+        parser.parse(new InputSource(new StringReader(result)));
+        parser.parse(new InputSource(new StringReader(result)));
+
+        assertEquals(2, parser.getOMTDPublications().size());
+        assertEquals(parser.getOMTDPublications().get(0), parser.getOMTDPublications().get(1));
+        assertEquals(1, recordCache.getHits());
+    }
+
+    @Test
+    public void parseSolrDocument() throws Exception {
+        SolrDocument document = new SolrDocument();
+        document.addField("__result", result.replace("A title", "[A] title"));
+
+        Parser parser = new Parser();
+        parser.parse(document);
+
+        assertEquals(1, parser.getOMTDPublications().size());
+        assertTrue(parser.getOMTDPublications().get(0).contains("[A] title"));
+    }
+
+    @Test
+    @Ignore
+    public void parseAllocation() throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        SolrDocument document = new SolrDocument();
+        document.addField("__result", result);
+        Parser parser = new Parser();
+
+        int iterations = 10000;
+        for (int i = 0; i < iterations; i++) {
+            parser.parse(document);
+            parser.clear();
+        }
+
+        long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < iterations; i++) {
+            parser.parse(document);
+            parser.clear();
+        }
+        allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+        System.out.println("allocated " + (allocated / iterations) + " bytes per document");
+    }
+
+    @Test
+    @Ignore
+    public void parseOverhead() throws Exception {
+        Parser parser = new Parser();
+        int iterations = 100000;
+        for (int i = 0; i < iterations / 10; i++) {
+            parser.parse(new InputSource(new StringReader(result)));
+            parser.clear();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parser.parse(new InputSource(new StringReader(result)));
+            parser.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("average parse time: " + (elapsed / iterations / 1000) + " us per document");
+    }
+}
@@ -0,0 +1,59 @@
+package eu.openminted.content.connector;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueryFiltersTest {
+    @Test
+    public void filterQueries() throws Exception {
+        Map<String, List<String>> parameters = new HashMap<>();
+        parameters.put("openairePublicationID", Arrays.asList(
+                "od______2806::3695906b0423d41e074bb46a9bdf9cb9",
+                "od______2806::3596cc1b1e96409b1677a0efe085912d"));
+        parameters.put("publicationYear", Arrays.asList("2015", "2010-2012", "recent"));
+        parameters.put("documentLanguage", Collections.singletonList("English"));
+        parameters.put("bad field}", Collections.singletonList("x"));
+
+        Query query = new Query();
+        query.setParams(parameters);
+
+        assertEquals(Arrays.asList(
+                "{!terms f=resultlanguagename}English",
+                "{!terms f=objidentifier}od______2806::3596cc1b1e96409b1677a0efe085912d,"
+                        + "od______2806::3695906b0423d41e074bb46a9bdf9cb9",
+                "resultdateofacceptance:([2010-01-01T00:00:00Z TO 2013-01-01T00:00:00Z}"
+                        + " OR [2015-01-01T00:00:00Z TO 2016-01-01T00:00:00Z})"),
+                QueryFilters.filterQueries(query));
+    }
+
+    @Test
+    public void unknownParams() throws Exception {
+        Map<String, List<String>> parameters = new HashMap<>();
+        parameters.put("resultlanguagename", Collections.singletonList("English"));
+        parameters.put("bestaccessright", Collections.singletonList("Open Access"));
+
+        Query query = new Query();
+        query.setParams(parameters);
+
+        assertTrue(QueryFilters.filterQueries(query).isEmpty());
+    }
+
+    @Test
+    public void malformedYears() throws Exception {
+        assertEquals(QueryFilters.matchNothing,
+                QueryFilters.yearFilter("resultdateofacceptance", Arrays.asList("recent", "2015-2010")));
+        assertNull(QueryFilters.yearFilter("resultdateofacceptance", Arrays.asList("", " ")));
+    }
+
+    @Test
+    public void commaSeparatedValues() throws Exception {
+        String filterQuery = QueryFilters.termsFilter("collectedfromname", Arrays.asList("Doe, J", "Repository"));
+        assertTrue(filterQuery.startsWith("collectedfromname:("));
+        assertTrue(filterQuery.contains(" OR "));
+    }
+}
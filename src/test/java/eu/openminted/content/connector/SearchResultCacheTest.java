@@ -0,0 +1,125 @@
+package eu.openminted.content.connector;
+
+import eu.openminted.content.openaire.OMTDMarshallers;
+import eu.openminted.registry.domain.Facet;
+import eu.openminted.registry.domain.Value;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SearchResultCacheTest {
+
+    private static Query query(String keyword, String... facets) {
+        Query query = new Query();
+        query.setKeyword(keyword);
+        query.setFacets(new ArrayList<>(Arrays.asList(facets)));
+        query.setParams(new HashMap<>());
+        query.setFrom(0);
+        query.setTo(10);
+        return query;
+    }
+
+    private static SearchResult searchResult(String... publications) {
+        SearchResult searchResult = new SearchResult();
+        searchResult.setPublications(new ArrayList<>(Arrays.asList(publications)));
+        searchResult.setFacets(new ArrayList<>());
+        searchResult.setTotalHits(publications.length);
+        return searchResult;
+    }
+
+    @Test
+    public void normalisedKey() throws Exception {
+        SearchResultCache cache = new SearchResultCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        cache.put(query(" *:* ", "a", "b"), searchResult("<record/>"));
+
+        SearchResult cached = cache.get(query("*:*", "b", "a"));
+        assertNotNull(cached);
+        assertEquals(Collections.singletonList("<record/>"), cached.getPublications());
+        assertNull(cache.get(query("other")));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void paramsAsFilters() throws Exception {
+        SearchResultCache cache = new SearchResultCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        Query joined = query("*:*");
+        joined.getParams().put(QueryFilters.collectedFrom, Collections.singletonList("Doe, J"));
+        cache.put(joined, searchResult("<record/>"));
+
+        // the same list representation, but another filter
+        Query split = query("*:*");
+        split.getParams().put(QueryFilters.collectedFrom, Arrays.asList("Doe", "J"));
+        assertNull(cache.get(split));
+
+        // unknown params are not sent to solr, so they do not split entries
+        Query unknown = query("*:*");
+        unknown.getParams().put(QueryFilters.collectedFrom, Collections.singletonList("Doe, J"));
+        unknown.getParams().put("unknown", Collections.singletonList("value"));
+        assertNotNull(cache.get(unknown));
+    }
+
+    @Test
+    public void facetCopies() throws Exception {
+        SearchResultCache cache = new SearchResultCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        SearchResult searchResult = searchResult("<record/>");
+        Facet facet = new Facet();
+        facet.setField("resultlanguagename");
+        Value value = new Value();
+        value.setValue("English");
+        value.setCount(3);
+        facet.setValues(new ArrayList<>(Collections.singletonList(value)));
+        searchResult.getFacets().add(facet);
+        cache.put(query("*:*"), searchResult);
+
+        value.setCount(4);
+        SearchResult cached = cache.get(query("*:*"));
+        cached.getFacets().get(0).getValues().get(0).setValue("French");
+
+        Value cachedValue = cache.get(query("*:*")).getFacets().get(0).getValues().get(0);
+        assertEquals("English", cachedValue.getValue());
+        assertEquals(3, (int) cachedValue.getCount());
+    }
+
+    @Test
+    public void outputFormat() throws Exception {
+        SearchResultCache cache = new SearchResultCache(1024 * 1024, 1, TimeUnit.MINUTES);
+        boolean formattedOutput = OMTDMarshallers.isFormattedOutput();
+        try {
+            cache.put(query("*:*"), searchResult("<record/>"));
+            OMTDMarshallers.setFormattedOutput(!formattedOutput);
+            assertNull(cache.get(query("*:*")));
+        } finally {
+            OMTDMarshallers.setFormattedOutput(formattedOutput);
+        }
+        assertNotNull(cache.get(query("*:*")));
+    }
+
+    @Test
+    public void eviction() throws Exception {
+        SearchResultCache cache = new SearchResultCache(2000, 1, TimeUnit.MINUTES);
+        char[] publication = new char[400];
+        Arrays.fill(publication, 'x');
+        for (int i = 0; i < 4; i++) {
+            cache.put(query("q" + i), searchResult(new String(publication)));
+        }
+
+        assertTrue(cache.getBytes() <= 2000);
+        assertTrue(cache.getEvictions() > 0);
+        assertNull(cache.get(query("q0")));
+        assertNotNull(cache.get(query("q3")));
+    }
+
+    @Test
+    public void expiry() throws Exception {
+        SearchResultCache cache = new SearchResultCache(1024 * 1024, 0, TimeUnit.MILLISECONDS);
+        cache.put(query("*:*"), searchResult("<record/>"));
+        Thread.sleep(1);
+
+        assertNull(cache.get(query("*:*")));
+        assertEquals(0, cache.getSize());
+    }
+}
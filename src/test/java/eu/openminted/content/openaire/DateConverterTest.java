@@ -0,0 +1,21 @@
+package eu.openminted.content.openaire;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DateConverterTest {
+    @Test
+    public void dates() throws Exception {
+        assertEquals(2016, DateConverter.toXMLGregorianCalendar("2016-03-01T10:11:12").getYear());
+        assertEquals(12, DateConverter.toXMLGregorianCalendar(" 2016-03-01T10:11:12.345Z ").getSecond());
+        assertNull(DateConverter.toXMLGregorianCalendar("2016-03-01"));
+        assertNull(DateConverter.toXMLGregorianCalendar("2016-13-01T10:11:12"));
+
+        assertEquals(2015, (int) DateConverter.toDate("2015-06").getYear());
+        assertEquals(6, (int) DateConverter.toDate("2015-06").getMonth());
+        assertNull(DateConverter.toDate("2015-06").getDay());
+        assertNull(DateConverter.toDate("June 2015"));
+    }
+}
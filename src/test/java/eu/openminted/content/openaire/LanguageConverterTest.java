@@ -0,0 +1,20 @@
+package eu.openminted.content.openaire;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LanguageConverterTest {
+    @Test
+    public void languages() throws Exception {
+        LanguageConverter languageConverter = LanguageConverter.getInstance();
+        assertEquals("en", languageConverter.getCode("English"));
+        assertEquals("French", languageConverter.getName("fr"));
+        assertEquals("French", languageConverter.getName("fra"));
+        assertEquals("French", languageConverter.getName("fre"));
+        assertEquals("Achinese", languageConverter.getLangCodeToName().get("ace"));
+        assertNull(languageConverter.getName("xxx"));
+        assertEquals(484, languageConverter.getLangNameToCode().size());
+    }
+}
@@ -0,0 +1,46 @@
+package eu.openminted.content.openaire;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+public class RecordCacheTest {
+    @Test
+    public void disk() throws Exception {
+        Path directory = Files.createTempDirectory("records");
+        String key = RecordCache.key("od______2806::1", "2016-03-01T10:11:12");
+        new RecordCache(10, directory).put(key, "<record/>");
+
+        assertEquals("<record/>", new RecordCache(10, directory).get(key));
+    }
+
+    @Test
+    public void maxAge() throws Exception {
+        Path directory = Files.createTempDirectory("records");
+        String key = RecordCache.key("od______2806::1", "2016-03-01T10:11:12");
+        new RecordCache(10, directory).put(key, "<record/>");
+        new RecordCache(10, directory).put(RecordCache.key("od______2806::2", "2016-03-01T10:11:12"), "<record/>");
+        Thread.sleep(10);
+
+        assertNull(new RecordCache(10, directory, 1, TimeUnit.MILLISECONDS).get(key));
+        assertEquals(1, new RecordCache(10, directory, 1, TimeUnit.MILLISECONDS).purge());
+    }
+
+    @Test
+    public void outputFormat() throws Exception {
+        boolean formattedOutput = OMTDMarshallers.isFormattedOutput();
+        String key = RecordCache.key("od______2806::1", "2016-03-01T10:11:12");
+        try {
+            OMTDMarshallers.setFormattedOutput(!formattedOutput);
+            assertNotEquals(key, RecordCache.key("od______2806::1", "2016-03-01T10:11:12"));
+        } finally {
+            OMTDMarshallers.setFormattedOutput(formattedOutput);
+        }
+    }
+}
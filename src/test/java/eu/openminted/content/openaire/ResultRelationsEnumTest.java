@@ -0,0 +1,46 @@
+package eu.openminted.content.openaire;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResultRelationsEnumTest {
+    @Test
+    public void relations() throws Exception {
+        assertEquals(ResultRelationsEnum.HAS_AUTHOR, ResultRelationsEnum.fromValue("hasAuthor"));
+        assertEquals(ResultRelationsEnum.HAS_AUTHOR, ResultRelationsEnum.fromValue("HASAUTHOR"));
+        assertEquals(ResultRelationsEnum.IS_PROVIDED_BY, ResultRelationsEnum.fromValue("isProvidedBy"));
+        assertEquals(ResultRelationsEnum.OTHER, ResultRelationsEnum.fromValue("isSupplementTo"));
+        assertEquals(ResultRelationsEnum.OTHER, ResultRelationsEnum.fromValue(null));
+    }
+
+    @Test
+    @Ignore
+    public void relationLookup() throws Exception {
+        // a record with many authors and similarity links, and a few unknown classes
+        String[] relations = new String[100];
+        for (int i = 0; i < relations.length; i++) {
+            if (i % 10 < 5) {
+                relations[i] = "hasAuthor";
+            } else if (i % 10 < 8) {
+                relations[i] = "hasAmongTopNSimilarDocuments";
+            } else if (i % 10 < 9) {
+                relations[i] = "isProducedBy";
+            } else {
+                relations[i] = "isSupplementTo";
+            }
+        }
+
+        int iterations = 1000000;
+        int authors = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (ResultRelationsEnum.fromValue(relations[i % relations.length]) == ResultRelationsEnum.HAS_AUTHOR) {
+                authors++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("average lookup time: " + (elapsed / iterations) + " ns (" + authors + " authors)");
+    }
+}